@@ -0,0 +1,89 @@
+package com.diogo.finance.benchmark;
+
+import com.diogo.finance.model.Category;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dados sintéticos determinísticos para os benchmarks (seed fixa).
+ */
+public final class BenchmarkData {
+
+    public static final long USER_ID = 1L;
+    public static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    public static final int DAYS = 5 * 365;
+    public static final String[] CATEGORIES = {"Alimentação", "Transporte", "Saúde", "Lazer", "Casa", "Educação"};
+
+    private static final int JDBC_BATCH = 5_000;
+
+    private BenchmarkData() {
+    }
+
+    public static List<Transaction> transactions(int rows) {
+        Random random = new Random(42);
+        User user = new User(USER_ID, "bench@finance.local", "x", "Bench", 0);
+        Category[] categories = new Category[CATEGORIES.length];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category((long) i + 1, CATEGORIES[i]);
+        }
+
+        List<Transaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction t = new Transaction();
+            t.setId((long) i + 1);
+            t.setUser(user);
+            t.setCategory(categories[random.nextInt(categories.length)]);
+            t.setAmountMinor(Math.round(random.nextDouble() * 50_000));
+            t.setDate(FIRST_DAY.plusDays(random.nextInt(DAYS)));
+            t.setDescription("Transaction " + i);
+            t.setType(random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE);
+            transactions.add(t);
+        }
+        return transactions;
+    }
+
+    /**
+     * Insere um utilizador, as categorias e {@code rows} transações via JDBC batch.
+     */
+    public static void seed(JdbcTemplate jdbc, int rows) {
+        jdbc.update("insert into users (id, email, password, name) values (1, 'bench@finance.local', 'x', 'Bench')");
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            jdbc.update("insert into category (id, name) values (?, ?)", i + 1, CATEGORIES[i]);
+        }
+
+        List<Transaction> batch = new ArrayList<>(JDBC_BATCH);
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            Transaction t = new Transaction();
+            t.setId((long) i + 1);
+            t.setCategory(new Category((long) random.nextInt(CATEGORIES.length) + 1, null));
+            t.setAmountMinor(Math.round(random.nextDouble() * 50_000));
+            t.setDate(FIRST_DAY.plusDays(random.nextInt(DAYS)));
+            t.setDescription("Transaction " + i);
+            t.setType(random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE);
+            batch.add(t);
+            if (batch.size() == JDBC_BATCH || i == rows - 1) {
+                jdbc.batchUpdate("""
+                                insert into transaction (id, user_id, category_id, amount_minor, date, description, type)
+                                values (?, 1, ?, ?, ?, ?, ?)
+                                """, batch, batch.size(),
+                        (ps, row) -> {
+                            ps.setLong(1, row.getId());
+                            ps.setLong(2, row.getCategory().getId());
+                            ps.setLong(3, row.getAmountMinor());
+                            ps.setObject(4, row.getDate());
+                            ps.setString(5, row.getDescription());
+                            ps.setShort(6, row.getType().getCode());
+                        });
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.diogo.finance.benchmark;
+
+import com.diogo.finance.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", Base64.getEncoder().encodeToString(new byte[32]));
+        jwtUtil.init();
+        token = jwtUtil.generateToken("bench@finance.local");
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+}
@@ -0,0 +1,278 @@
+package com.diogo.finance.benchmark;
+
+import com.diogo.finance.FinanceDashboardApplication;
+import com.diogo.finance.service.RollupService;
+import com.diogo.finance.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga HTTP do dashboard: arranca a aplicação com threads de plataforma e
+ * depois com o perfil "virtual" (threads virtuais + fila justa no pool JDBC), com os
+ * mesmos dados e o mesmo tamanho de pool, e mede throughput e latências (p50/p99) de
+ * {@code clients} clientes concorrentes a pedir resumos, séries e páginas.
+ *
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec@loadtest -Dloadtest.args="clients=800 seconds=30"
+ * </pre>
+ *
+ * Argumentos (chave=valor): clients=400, seconds=20, warmup=5, rows=100000, pool=10,
+ * tomcatThreads=200, db=jdbc:postgresql://host/base, dbUser=postgres, dbPassword=,
+ * out=target/loadtest-result.json. Sem {@code db} usa H2 em memória, onde quase não há
+ * espera por I/O e a diferença entre os modos é pequena; com Postgres os dados vão para o
+ * schema {@code loadtest}, recriado em cada modo. O modo virtual só corre num JDK 21
+ * (build com -Pjava21).
+ */
+public final class LoadTest {
+
+    private static final String EMAIL = "bench@finance.local";
+    private static final String SCHEMA = "loadtest";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] argv) throws Exception {
+        // o restart do devtools voltaria a chamar este main com os argumentos do Spring
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>();
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        Options o = new Options(
+                Integer.parseInt(options.getOrDefault("clients", "400")),
+                Integer.parseInt(options.getOrDefault("seconds", "20")),
+                Integer.parseInt(options.getOrDefault("warmup", "5")),
+                Integer.parseInt(options.getOrDefault("rows", "100000")),
+                Integer.parseInt(options.getOrDefault("pool", "10")),
+                Integer.parseInt(options.getOrDefault("tomcatThreads", "200")),
+                options.get("db"),
+                options.getOrDefault("dbUser", "postgres"),
+                options.getOrDefault("dbPassword", ""));
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform", o));
+        int feature = Runtime.version().feature();
+        if (feature >= 21) {
+            results.add(run("virtual", o));
+        } else {
+            System.out.println("Java " + feature + ": modo virtual ignorado (requer um JDK 21 e build com -Pjava21)");
+        }
+
+        System.out.printf("%n%-9s %8s %10s %9s %9s %9s %7s%n", "mode", "clients", "req/s", "p50 ms", "p99 ms",
+                "max ms", "errors");
+        for (Result r : results) {
+            System.out.printf("%-9s %8d %10.1f %9.2f %9.2f %9.2f %7d%n", r.mode(), r.clients(), r.throughput(),
+                    r.p50Millis(), r.p99Millis(), r.maxMillis(), r.errors());
+        }
+
+        File out = new File(options.getOrDefault("out", "target/loadtest-result.json"));
+        out.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, results);
+        System.out.println("Resultados em " + out.getPath());
+    }
+
+    private static Result run(String mode, Options o) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + o.tomcatThreads(),
+                "--spring.datasource.hikari.maximum-pool-size=" + o.pool(),
+                "--spring.datasource.hikari.minimum-idle=" + o.pool(),
+                "--spring.jpa.show-sql=false",
+                "--jwt.secret=" + Base64.getEncoder().encodeToString(new byte[32]),
+                "--summary.cache.max-size=0",
+                "--logging.level.root=WARN"));
+        if (mode.equals("virtual")) {
+            args.add("--spring.profiles.active=virtual");
+        }
+        if (o.db() == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                            + "DEFAULT_NULL_ORDERING=HIGH;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.flyway.enabled=false"));
+        } else {
+            dropSchema(o);
+            args.addAll(List.of(
+                    "--spring.datasource.url=" + o.db() + (o.db().contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA,
+                    "--spring.datasource.username=" + o.dbUser(),
+                    "--spring.datasource.password=" + o.dbPassword(),
+                    "--spring.flyway.schemas=" + SCHEMA));
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(FinanceDashboardApplication.class,
+                args.toArray(String[]::new));
+        try {
+            BenchmarkData.seed(context.getBean(JdbcTemplate.class), o.rows());
+            context.getBean(RollupService.class).rebuild(BenchmarkData.USER_ID);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String token = context.getBean(JwtUtil.class).generateToken(EMAIL);
+            return drive(mode, "http://localhost:" + port, token, o);
+        } finally {
+            context.close();
+            if (o.db() != null) {
+                dropSchema(o);
+            }
+        }
+    }
+
+    private static Result drive(String mode, String baseUrl, String token, Options o) throws InterruptedException {
+        List<URI> uris = dashboardRequests(baseUrl);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(o.warmup()).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(o.seconds()).toNanos();
+        AtomicLong errors = new AtomicLong();
+        LatencyRecorder[] recorders = new LatencyRecorder[o.clients()];
+        Thread[] threads = new Thread[o.clients()];
+
+        for (int i = 0; i < o.clients(); i++) {
+            LatencyRecorder recorder = recorders[i] = new LatencyRecorder();
+            int offset = i;
+            threads[i] = new Thread(() -> {
+                for (int n = offset; ; n++) {
+                    HttpRequest request = HttpRequest.newBuilder(uris.get(n % uris.size()))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    long sent = System.nanoTime();
+                    if (sent >= deadline) {
+                        return;
+                    }
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long received = System.nanoTime();
+                    if (sent >= measureFrom && received <= deadline) {
+                        if (ok) {
+                            recorder.add(received - sent);
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }, "load-" + mode + "-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] latencies = LatencyRecorder.merge(recorders);
+        Arrays.sort(latencies);
+        return new Result(mode, o.clients(), o.pool(), latencies.length,
+                latencies.length / (double) o.seconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+                errors.get());
+    }
+
+    // mistura de um dashboard: resumo do mês, série anual, comparação de intervalos e primeira página
+    private static List<URI> dashboardRequests(String baseUrl) {
+        List<URI> uris = new ArrayList<>();
+        for (int month = 0; month < 12; month++) {
+            LocalDate start = BenchmarkData.FIRST_DAY.plusYears(1).plusMonths(month);
+            LocalDate end = start.plusMonths(1).minusDays(1);
+            String email = "email=" + EMAIL;
+            uris.add(URI.create(baseUrl + "/transactions/summary/by-email?" + email
+                    + "&start=" + start + "&end=" + end));
+            uris.add(URI.create(baseUrl + "/transactions/by-email/page?" + email
+                    + "&start=" + start + "&end=" + end + "&size=50"));
+            uris.add(URI.create(baseUrl + "/transactions/summary/series/by-email?" + email
+                    + "&start=" + start.withDayOfYear(1) + "&end=" + start.withDayOfYear(1).plusYears(1).minusDays(1)
+                    + "&granularity=MONTH"));
+            uris.add(URI.create(baseUrl + "/transactions/summary/series/by-email?" + email
+                    + "&ranges=" + start + "/" + end + "," + start.minusYears(1) + "/" + end.minusYears(1)));
+        }
+        return uris;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static void dropSchema(Options o) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(o.db(), o.dbUser(), o.dbPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+        }
+    }
+
+    private record Options(int clients, int seconds, int warmup, int rows, int pool, int tomcatThreads,
+                           String db, String dbUser, String dbPassword) {
+    }
+
+    public record Result(String mode, int clients, int pool, long requests, double throughput,
+                         double p50Millis, double p99Millis, double maxMillis, long errors) {
+    }
+
+    // um por cliente: sem partilha entre threads durante a medição
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        static long[] merge(LatencyRecorder[] recorders) {
+            int total = 0;
+            for (LatencyRecorder r : recorders) {
+                total += r.size;
+            }
+            long[] merged = new long[total];
+            int at = 0;
+            for (LatencyRecorder r : recorders) {
+                System.arraycopy(r.values, 0, merged, at, r.size);
+                at += r.size;
+            }
+            return merged;
+        }
+    }
+}
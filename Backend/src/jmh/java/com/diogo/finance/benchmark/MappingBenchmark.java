@@ -0,0 +1,40 @@
+package com.diogo.finance.benchmark;
+
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.model.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactions = BenchmarkData.transactions(rows);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> entityConstructor() {
+        return transactions.stream().map(TransactionResponse::new).toList();
+    }
+
+    @Benchmark
+    public List<TransactionResponse> allArgsConstructor() {
+        return transactions.stream()
+                .map(t -> new TransactionResponse(t.getId(), t.getDescription(), t.getAmount(), t.getType().name(),
+                        t.getDate(), t.getCategory().getId(), t.getCategory().getName()))
+                .toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.diogo.finance.benchmark;
+
+import com.diogo.finance.FinanceDashboardApplication;
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.TransactionPage;
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.service.RollupService;
+import com.diogo.finance.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos de resumo e listagem do TransactionService contra uma base H2 em memória
+ * (modo PostgreSQL), semeada com {@code rows} transações. A cache de resumos fica
+ * desligada para medir o cálculo em si.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final String EMAIL = "bench@finance.local";
+    private static final LocalDate MONTH_START = BenchmarkData.FIRST_DAY.plusMonths(18);
+    private static final LocalDate MONTH_END = MONTH_START.plusMonths(1).minusDays(1);
+    private static final LocalDate YEAR_START = BenchmarkData.FIRST_DAY.plusYears(1).plusDays(14);
+    private static final LocalDate YEAR_END = YEAR_START.plusYears(1);
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean rollups;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(FinanceDashboardApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                        + "DEFAULT_NULL_ORDERING=HIGH;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--jwt.secret=" + Base64.getEncoder().encodeToString(new byte[32]),
+                "--summary.cache.max-size=0",
+                "--rollup.enabled=" + rollups,
+                "--logging.level.root=WARN");
+
+        BenchmarkData.seed(context.getBean(JdbcTemplate.class), rows);
+        context.getBean(RollupService.class).rebuild(BenchmarkData.USER_ID);
+        transactionService = context.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SummaryResponse summaryOneMonth() {
+        return transactionService.getSummaryByEmail(EMAIL, MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public SummaryResponse summaryOneYear() {
+        return transactionService.getSummaryByEmail(EMAIL, YEAR_START, YEAR_END);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> listOneMonth() {
+        return transactionService.getTransactionsByEmailAndDateRange(EMAIL, MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public TransactionPage firstPage() {
+        return transactionService.getTransactionPageByEmail(EMAIL, null, null, null, 50);
+    }
+}
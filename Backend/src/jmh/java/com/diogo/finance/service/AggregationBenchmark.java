@@ -0,0 +1,155 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.analytics.UserColumns;
+import com.diogo.finance.benchmark.BenchmarkData;
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compara as agregações em Java streams (groupingBy sobre entidades, como o
+ * TransactionService fazia) com o SummaryCalculator sobre linhas já agregadas, com
+ * ciclos primitivos sobre colunas long[] e com o resumo completo a partir de UserColumns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private List<Transaction> transactions;
+    private List<TypeCategoryTotal> aggregated;
+
+    private long[] amounts;
+    private byte[] types;
+    private int[] categories;
+    private int categoryCount;
+
+    private UserColumns columns;
+    private Map<Long, String> categoryNames;
+    private LocalDate first;
+    private LocalDate last;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactions = BenchmarkData.transactions(rows);
+
+        Map<List<String>, Long> totals = new HashMap<>();
+        for (Transaction t : transactions) {
+            totals.merge(List.of(t.getType().name(), t.getCategory().getName()), t.getAmountMinor(), Long::sum);
+        }
+        aggregated = new ArrayList<>();
+        totals.forEach((key, total) -> aggregated.add(new Row(key.get(0), key.get(1), total)));
+
+        amounts = new long[rows];
+        types = new byte[rows];
+        categories = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            Transaction t = transactions.get(i);
+            amounts[i] = t.getAmountMinor();
+            types[i] = (byte) t.getType().getCode();
+            categories[i] = t.getCategory().getId().intValue();
+            categoryCount = Math.max(categoryCount, categories[i] + 1);
+        }
+
+        UserColumns.Builder builder = UserColumns.builder();
+        categoryNames = new HashMap<>();
+        List<Transaction> byDate = transactions.stream().sorted(Comparator.comparing(Transaction::getDate)).toList();
+        for (int i = 0; i < byDate.size(); i++) {
+            Transaction t = byDate.get(i);
+            builder.add(i, t.getDate(), t.getAmountMinor(), t.getType(), t.getCategory().getId());
+            categoryNames.put(t.getCategory().getId(), t.getCategory().getName());
+        }
+        columns = builder.build();
+        first = byDate.get(0).getDate();
+        last = byDate.get(byDate.size() - 1).getDate();
+    }
+
+    @Benchmark
+    public void streamGroupingBy(Blackhole bh) {
+        bh.consume(transactions.stream()
+                .mapToDouble(t -> t.getType() == TransactionType.INCOME ? t.getAmount() : -t.getAmount())
+                .sum());
+        bh.consume(transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getType, Collectors.summingDouble(Transaction::getAmount))));
+        bh.consume(transactions.stream()
+                .collect(Collectors.groupingBy(t -> t.getCategory().getName(),
+                        Collectors.summingDouble(Transaction::getAmount))));
+    }
+
+    @Benchmark
+    public void primitiveKernels(Blackhole bh) {
+        bh.consume(balance(amounts, types, rows));
+        long[] byType = new long[2];
+        for (int i = 0; i < rows; i++) {
+            byType[types[i]] += amounts[i];
+        }
+        bh.consume(byType);
+        long[] byCategory = new long[categoryCount];
+        for (int i = 0; i < rows; i++) {
+            byCategory[categories[i]] += amounts[i];
+        }
+        bh.consume(byCategory);
+    }
+
+    @Benchmark
+    public SummaryResponse summaryCalculatorOverAggregatedRows() {
+        return SummaryCalculator.summarize(aggregated);
+    }
+
+    // o que o ColumnarStore faz por resumo: pesquisa do intervalo, kernel e SummaryCalculator
+    @Benchmark
+    public SummaryResponse columnarSummary() {
+        return SummaryCalculator.summarize(columns.totals(first, last, categoryNames::get));
+    }
+
+    // receitas somam, tudo o resto subtrai; sign = +1 para INCOME, -1 para os restantes, sem ramo
+    private static long balance(long[] amounts, byte[] types, int rows) {
+        byte income = (byte) TransactionType.INCOME.getCode();
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            long sign = 1 - 2L * (types[i] != income ? 1 : 0);
+            total += sign * amounts[i];
+        }
+        return total;
+    }
+
+    private record Row(String type, String categoryName, Long total) implements TypeCategoryTotal {
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        @Override
+        public Long getTotal() {
+            return total;
+        }
+
+        @Override
+        public Long getRowCount() {
+            return 1L;
+        }
+    }
+}
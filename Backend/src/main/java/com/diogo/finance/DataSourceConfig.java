@@ -0,0 +1,45 @@
+package com.diogo.finance;
+
+import com.diogo.finance.metrics.JdbcMetricsDataSource;
+import com.diogo.finance.util.FairDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // jdbc.fair-gate.enabled=true (ligado no perfil "virtual"): as ligações passam a ser
+    // entregues por ordem de chegada, com o mesmo tamanho e timeout do pool Hikari.
+    // jdbc.metrics.enabled: tempo e contagem de statements (finance.jdbc.*)
+    @Bean
+    public static BeanPostProcessor dataSourcePostProcessor(Environment environment,
+                                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        boolean fairGate = environment.getProperty("jdbc.fair-gate.enabled", Boolean.class, false);
+        boolean jdbcMetrics = environment.getProperty("jdbc.metrics.enabled", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                DataSource dataSource = hikari;
+                if (fairGate) {
+                    dataSource = new FairDataSource(dataSource, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                if (jdbcMetrics) {
+                    dataSource = new JdbcMetricsDataSource(dataSource, meterRegistry);
+                }
+                return dataSource;
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.diogo.finance.analytics;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.CacheStatsResponse;
+import com.diogo.finance.dto.TransactionColumnRow;
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.event.TransactionChangedEvent;
+import com.diogo.finance.model.Money;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.repository.TransactionRepository;
+import com.diogo.finance.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Colunas em memória (UserColumns) dos utilizadores ativos, para responder a resumos
+ * e séries sem ir à base de dados. Liga-se com analytics.columnar.enabled.
+ * <p>
+ * As colunas de um utilizador são carregadas no primeiro acesso, com uma única query,
+ * e mantidas em sincronia pelos TransactionChangedEvent das escritas: as escritas de uma
+ * linha são aplicadas às colunas, as escritas em bloco descartam-nas. Acima de
+ * analytics.columnar.max-incremental-rows cada escrita copiaria colunas grandes (ver
+ * UserColumns) dentro do compute: também descarta, e a leitura seguinte recarrega com uma
+ * query. A cache é limitada por bytes (analytics.columnar.max-size) e, quando cheia,
+ * liberta primeiro os utilizadores menos usados. Transações sem data ou sem tipo ficam
+ * de fora.
+ */
+@Component
+public class ColumnarStore {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Value("${analytics.columnar.enabled:false}")
+    private boolean enabled;
+
+    @Value("${analytics.columnar.max-incremental-rows:50000}")
+    private int maxIncrementalRows;
+
+    private final Cache<Long, UserColumns> cache;
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<UserColumns>> loading = new ConcurrentHashMap<>();
+    private final TransactionTemplate readOnly;
+
+    public ColumnarStore(@Value("${analytics.columnar.max-size:256MB}") DataSize maxSize,
+                         PlatformTransactionManager transactionManager) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long userId, UserColumns columns) -> (int) Math.min(Integer.MAX_VALUE, columns.estimatedBytes()))
+                .recordStats()
+                .build();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<TypeCategoryTotal> totals(Long userId, LocalDate start, LocalDate end) {
+        return columns(userId).totals(start, end, categorySnapshot.get()::name);
+    }
+
+    public UserColumns columns(Long userId) {
+        UserColumns cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // um único carregamento por utilizador; pedidos simultâneos esperam pelo mesmo
+        CompletableFuture<UserColumns> mine = new CompletableFuture<>();
+        CompletableFuture<UserColumns> inFlight = loading.putIfAbsent(userId, mine);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+        try {
+            long generation = generation(userId).get();
+            UserColumns loaded = load(userId);
+            // uma escrita durante o carregamento muda a geração: estas colunas servem este pedido mas não ficam
+            cache.asMap().compute(userId, (id, current) ->
+                    generation(id).get() == generation ? loaded : current);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(userId, mine);
+        }
+    }
+
+    private UserColumns load(Long userId) {
+        UserColumns columns = readOnly.execute(status -> {
+            UserColumns.Builder builder = UserColumns.builder();
+            try (Stream<TransactionColumnRow> rows = transactionRepository.streamColumnsByUserId(userId)) {
+                rows.forEach(row -> {
+                    if (row.date() != null && row.type() != null) {
+                        builder.add(row.id(), row.date(), row.amountMinor() != null ? row.amountMinor() : 0,
+                                row.type(), row.categoryId());
+                    }
+                });
+            }
+            return builder.build();
+        });
+        if (columns.size() == 0 && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        return columns;
+    }
+
+    // estritamente antes do SummaryCache e dos listeners que recalculam resumos (ex.: LiveUpdateService)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Long userId = event.getUserId();
+        if (!enabled || userId == null) {
+            return;
+        }
+        cache.asMap().compute(userId, (id, columns) -> {
+            generation(id).incrementAndGet();
+            if (columns == null || event.getKind() == TransactionChangedEvent.Kind.BULK
+                    || columns.size() > maxIncrementalRows) {
+                return null;
+            }
+            UserColumns updated = columns;
+            if (event.getPrevious() != null) {
+                updated = remove(updated, event.getPrevious());
+            }
+            if (event.getTransaction() != null) {
+                updated = add(updated, event.getTransaction());
+            }
+            return updated;
+        });
+    }
+
+    private static UserColumns remove(UserColumns columns, TransactionResponse row) {
+        return row.getId() != null && row.getDate() != null ? columns.without(row.getId(), row.getDate()) : columns;
+    }
+
+    private static UserColumns add(UserColumns columns, TransactionResponse row) {
+        TransactionType type = TransactionType.parse(row.getType());
+        if (row.getId() == null || row.getDate() == null || type == null) {
+            return columns;
+        }
+        return columns.with(row.getId(), row.getDate(), Money.toMinor(row.getAmount()), type, row.getCategoryId());
+    }
+
+    private AtomicLong generation(Long userId) {
+        return generations.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse("columnar", cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+}
@@ -0,0 +1,87 @@
+package com.diogo.finance.cache;
+
+import com.diogo.finance.event.CategoryChangedEvent;
+import com.diogo.finance.model.Category;
+import com.diogo.finance.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cópia imutável das categorias em memória (id -> nome e nome -> id). As escritas de
+ * transações e o mapeamento das respostas leem daqui em vez de irem à base de dados.
+ * É substituída de uma só vez depois de cada alteração às categorias e, para apanhar
+ * alterações feitas por outras instâncias, a cada category.snapshot.refresh-ms.
+ */
+@Component
+public class CategorySnapshot {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile Snapshot current;
+
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    // sincronizado: uma leitura mais antiga nunca substitui uma mais recente
+    public synchronized Snapshot refresh() {
+        Snapshot snapshot = Snapshot.of(categoryRepository.findAll());
+        current = snapshot;
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${category.snapshot.refresh-ms:300000}")
+    public void refreshPeriodically() {
+        refresh();
+    }
+
+    // version muda sempre que os nomes mudam e é igual em todas as instâncias com as mesmas categorias
+    public record Snapshot(Map<Long, String> namesById, Map<String, Long> idsByName, int version) {
+
+        static Snapshot of(List<Category> categories) {
+            Map<Long, String> names = new HashMap<>();
+            Map<String, Long> ids = new HashMap<>();
+            // com nomes repetidos fica o id mais baixo
+            categories.stream().sorted(Comparator.comparing(Category::getId)).forEach(category -> {
+                names.put(category.getId(), category.getName());
+                if (category.getName() != null) {
+                    ids.putIfAbsent(normalize(category.getName()), category.getId());
+                }
+            });
+            return new Snapshot(Collections.unmodifiableMap(names), Collections.unmodifiableMap(ids), names.hashCode());
+        }
+
+        public boolean contains(Long id) {
+            return id != null && namesById.containsKey(id);
+        }
+
+        public String name(Long id) {
+            return id != null ? namesById.get(id) : null;
+        }
+
+        // sem distinguir maiúsculas nem espaços nas pontas
+        public Long idOf(String name) {
+            return name != null ? idsByName.get(normalize(name)) : null;
+        }
+
+        private static String normalize(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.diogo.finance.cache;
+
+import com.diogo.finance.dto.CacheStatsResponse;
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.event.CategoryChangedEvent;
+import com.diogo.finance.event.TransactionChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache limitada (tamanho + TTL) de resumos por utilizador e intervalo de datas.
+ * O utilizador pode ser identificado pelo id ou pelo email, consoante o endpoint.
+ * Cada escrita dá ao utilizador uma geração nova, pelo que um resumo calculado
+ * em paralelo com uma escrita nunca volta a ser servido; as entradas antigas deixam
+ * de ser alcançáveis e saem por TTL ou tamanho.
+ */
+@Component
+public class SummaryCache {
+
+    private final Cache<Key, SummaryResponse> cache;
+    // gerações únicas entre todos os utilizadores: uma geração despejada do mapa e recriada
+    // nunca coincide com a de um resumo antigo ainda em cache
+    private final Cache<Object, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+
+    public SummaryCache(@Value("${summary.cache.max-size:10000}") long maxSize,
+                        @Value("${summary.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    public SummaryResponse get(Object user, LocalDate start, LocalDate end, Supplier<SummaryResponse> loader) {
+        Key key = new Key(user, generations.get(user, u -> nextGeneration.incrementAndGet()), start, end);
+        SummaryResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // o loader vai à base de dados: calculado fora do cache.get para não bloquear o lock
+        // interno do mapa (que fixaria a thread virtual à thread portadora durante a query)
+        SummaryResponse summary = loader.get();
+        if (!summary.isDegraded()) {
+            cache.put(key, summary);
+        }
+        return summary;
+    }
+
+    public void invalidateUser(Long userId, String email) {
+        invalidate(userId);
+        invalidate(email);
+    }
+
+    private void invalidate(Object user) {
+        if (user != null) {
+            generations.put(user, nextGeneration.incrementAndGet());
+        }
+    }
+
+    // logo depois do ColumnarStore e antes dos restantes listeners (ex.: LiveUpdateService):
+    // um resumo recalculado após a invalidação já vê as colunas atualizadas
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        invalidateUser(event.getUserId(), event.getEmail());
+    }
+
+    // os resumos estão agrupados por nome de categoria: uma alteração às categorias invalida tudo
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generations.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse("summary", cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    private record Key(Object user, long generation, LocalDate start, LocalDate end) {
+    }
+}
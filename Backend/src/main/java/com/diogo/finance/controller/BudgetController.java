@@ -0,0 +1,52 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.dto.BudgetRequest;
+import com.diogo.finance.dto.BudgetResponse;
+import com.diogo.finance.service.BudgetService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// orçamentos do utilizador autenticado (o username é o email)
+@RestController
+@RequestMapping("/budgets")
+public class BudgetController {
+
+    @Autowired
+    private BudgetService budgetService;
+
+    // month no formato 2025-03; por omissão o mês corrente
+    @GetMapping
+    public List<BudgetResponse> getBudgets(@AuthenticationPrincipal UserDetails user,
+                                           @RequestParam(required = false) String month) {
+        return budgetService.getBudgets(user.getUsername(), month != null ? YearMonth.parse(month) : null);
+    }
+
+    @PostMapping
+    public BudgetResponse addBudget(@AuthenticationPrincipal UserDetails user, @RequestBody BudgetRequest request) {
+        return budgetService.addBudget(user.getUsername(), request);
+    }
+
+    @PutMapping("/{id}")
+    public BudgetResponse updateBudget(@AuthenticationPrincipal UserDetails user, @PathVariable Long id,
+                                       @RequestBody BudgetRequest request) {
+        return budgetService.updateBudget(user.getUsername(), id, request);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteBudget(@AuthenticationPrincipal UserDetails user, @PathVariable Long id) {
+        budgetService.deleteBudget(user.getUsername(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // corrige já os contadores do utilizador em vez de esperar pela passagem periódica
+    @PostMapping("/reconcile")
+    public int reconcile(@AuthenticationPrincipal UserDetails user) {
+        return budgetService.reconcile(user.getUsername());
+    }
+}
@@ -0,0 +1,40 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.analytics.ColumnarStore;
+import com.diogo.finance.cache.SummaryCache;
+import com.diogo.finance.dto.CacheStatsResponse;
+import com.diogo.finance.service.CustomUserDetailsService;
+import com.diogo.finance.service.IdempotencyService;
+import com.diogo.finance.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    @Autowired
+    private SummaryCache summaryCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ColumnarStore columnarStore;
+
+    @GetMapping("/stats")
+    public List<CacheStatsResponse> getStats() {
+        return List.of(summaryCache.stats(), jwtUtil.cacheStats(), userDetailsService.cacheStats(),
+                idempotencyService.cacheStats(), columnarStore.stats());
+    }
+}
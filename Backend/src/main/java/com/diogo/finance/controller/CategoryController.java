@@ -0,0 +1,47 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.dto.CategoryRequest;
+import com.diogo.finance.dto.CategoryResponse;
+import com.diogo.finance.service.CategoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/categories")
+public class CategoryController {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @GetMapping
+    public List<CategoryResponse> getCategories() {
+        return categoryService.getCategories();
+    }
+
+    @GetMapping("/{id}")
+    public CategoryResponse getCategory(@PathVariable Long id) {
+        return categoryService.getCategory(id);
+    }
+
+    @PostMapping
+    public CategoryResponse addCategory(@RequestBody CategoryRequest request) {
+        return categoryService.addCategory(request);
+    }
+
+    @PostMapping("/batch")
+    public List<CategoryResponse> addCategories(@RequestBody List<CategoryRequest> requests) {
+        return categoryService.addCategories(requests);
+    }
+
+    @PutMapping("/{id}")
+    public CategoryResponse updateCategory(@PathVariable Long id, @RequestBody CategoryRequest request) {
+        return categoryService.updateCategory(id, request);
+    }
+
+    @DeleteMapping("/{id}")
+    public void deleteCategory(@PathVariable Long id) {
+        categoryService.deleteCategory(id);
+    }
+}
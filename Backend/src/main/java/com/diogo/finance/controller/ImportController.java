@@ -0,0 +1,35 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.dto.ImportJobStatus;
+import com.diogo.finance.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/transactions/import")
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    @PostMapping(consumes = "multipart/form-data")
+    public ResponseEntity<ImportJobStatus> importStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam String email,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Long categoryId
+    ) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(importService.start(file, email, format, categoryId));
+    }
+
+    @GetMapping("/{jobId}")
+    public ImportJobStatus getImportStatus(@PathVariable String jobId) {
+        return importService.getStatus(jobId);
+    }
+}
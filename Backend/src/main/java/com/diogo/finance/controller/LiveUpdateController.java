@@ -0,0 +1,38 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.service.LiveUpdateService;
+import com.diogo.finance.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/transactions/events")
+public class LiveUpdateController {
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    // o canal é sempre o do utilizador autenticado (o username é o email)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @AuthenticationPrincipal UserDetails user,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+        Long userId = transactionService.findUserIdByEmail(user.getUsername());
+        return liveUpdateService.subscribe(userId,
+                start != null ? LocalDate.parse(start) : null,
+                end != null ? LocalDate.parse(end) : null);
+    }
+}
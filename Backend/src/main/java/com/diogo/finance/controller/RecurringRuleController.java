@@ -0,0 +1,51 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.dto.RecurringRuleRequest;
+import com.diogo.finance.dto.RecurringRuleResponse;
+import com.diogo.finance.service.RecurringTransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// regras do utilizador autenticado (o username é o email)
+@RestController
+@RequestMapping("/recurring")
+public class RecurringRuleController {
+
+    @Autowired
+    private RecurringTransactionService recurringTransactionService;
+
+    @GetMapping
+    public List<RecurringRuleResponse> getRules(@AuthenticationPrincipal UserDetails user) {
+        return recurringTransactionService.getRules(user.getUsername());
+    }
+
+    @PostMapping
+    public RecurringRuleResponse addRule(@AuthenticationPrincipal UserDetails user,
+                                         @RequestBody RecurringRuleRequest request) {
+        return recurringTransactionService.addRule(user.getUsername(), request);
+    }
+
+    @PutMapping("/{id}")
+    public RecurringRuleResponse updateRule(@AuthenticationPrincipal UserDetails user, @PathVariable Long id,
+                                            @RequestBody RecurringRuleRequest request) {
+        return recurringTransactionService.updateRule(user.getUsername(), id, request);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@AuthenticationPrincipal UserDetails user, @PathVariable Long id) {
+        recurringTransactionService.deleteRule(user.getUsername(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // grava já as ocorrências vencidas do utilizador, em vez de esperar pela passagem periódica
+    @PostMapping("/run")
+    public int run(@AuthenticationPrincipal UserDetails user) {
+        return recurringTransactionService.materialize(user.getUsername(), LocalDate.now());
+    }
+}
@@ -0,0 +1,35 @@
+package com.diogo.finance.controller;
+
+import com.diogo.finance.dto.RollupDrift;
+import com.diogo.finance.service.RollupService;
+import com.diogo.finance.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// só os rollups do utilizador autenticado; a reconstrução global fica no arranque e no verifyAll agendado
+@RestController
+@RequestMapping("/transactions/rollups")
+public class RollupController {
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(@AuthenticationPrincipal UserDetails user) {
+        rollupService.rebuild(transactionService.findUserIdByEmail(user.getUsername()));
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/verify")
+    public List<RollupDrift> verify(@AuthenticationPrincipal UserDetails user) {
+        return rollupService.verify(transactionService.findUserIdByEmail(user.getUsername()));
+    }
+}
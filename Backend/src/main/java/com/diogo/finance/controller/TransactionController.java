@@ -1,100 +1,387 @@
 package com.diogo.finance.controller;
 
+import com.diogo.finance.dto.SummaryGranularity;
 import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.SummarySeriesResponse;
+import com.diogo.finance.dto.TransactionBatchRequest;
+import com.diogo.finance.dto.TransactionBatchResponse;
+import com.diogo.finance.dto.TransactionPage;
 import com.diogo.finance.dto.TransactionRequest;
 import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.dto.TransactionSearchCriteria;
+import com.diogo.finance.dto.WriteStatus;
 import com.diogo.finance.model.Transaction;
+import com.diogo.finance.service.DataVersionService;
+import com.diogo.finance.service.IdempotencyService;
+import com.diogo.finance.service.SummarySeriesService;
+import com.diogo.finance.service.TransactionBatchService;
+import com.diogo.finance.service.TransactionCsvExporter;
 import com.diogo.finance.service.TransactionService;
+import com.diogo.finance.service.TransactionWritePipeline;
+import com.diogo.finance.service.WriteDurability;
+import com.diogo.finance.util.DateRange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/transactions")
+@Timed(value = "finance.transaction.controller", histogram = true)
 public class TransactionController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int STREAM_FLUSH_EVERY = 500;
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private TransactionCsvExporter transactionCsvExporter;
+
+    @Autowired
+    private SummarySeriesService summarySeriesService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionWritePipeline transactionWritePipeline;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${transaction.write.create.durability:SYNC}")
+    private WriteDurability createDurability;
+
+    @Value("${transaction.write.update.durability:SYNC}")
+    private WriteDurability updateDurability;
+
+    // com Idempotency-Key, um pedido repetido devolve a resposta original sem voltar a escrever
     @PostMapping
-    public TransactionResponse addTransaction(@RequestBody TransactionRequest request) {
-        return transactionService.addTransaction(request);
+    public CompletableFuture<ResponseEntity<Object>> addTransaction(
+            @RequestBody TransactionRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
+        return write(createDurability, request, () -> idempotencyService.execute(idempotencyKey, "create", request,
+                TransactionResponse.class, () -> transactionService.addTransaction(request)));
     }
+
+    @PostMapping("/batch")
+    public TransactionBatchResponse addTransactions(
+            @RequestBody TransactionBatchRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute(idempotencyKey, "batch", request, TransactionBatchResponse.class,
+                () -> transactionBatchService.addTransactions(request));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<TransactionResponse> updateTransaction(
+    public CompletableFuture<ResponseEntity<Object>> updateTransaction(
             @PathVariable Long id,
-            @RequestBody TransactionRequest request
+            @RequestBody TransactionRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
-        return ResponseEntity.ok(transactionService.updateTransaction(id, request));
+        return write(updateDurability, request, () -> idempotencyService.execute(idempotencyKey, "update:" + id,
+                request, TransactionResponse.class, () -> transactionService.updateTransaction(id, request)));
+    }
+
+    // estado de uma escrita aceite com 202 (durabilidade ACCEPTED)
+    @GetMapping("/writes/{writeId}")
+    public WriteStatus getWriteStatus(@PathVariable String writeId) {
+        return transactionWritePipeline.getStatus(writeId);
+    }
+
+    /**
+     * GET condicional: com If-None-Match igual à ETag atual responde 304 sem calcular o corpo.
+     * no-cache faz o browser guardar a resposta e revalidá-la sempre com If-None-Match.
+     * Um resumo degradado (partes a null) segue sem ETag e com no-store: associado à versão
+     * atual dos dados, seria revalidado com 304 até à próxima escrita.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest webRequest, String etag, Supplier<T> body) {
+        CacheControl revalidate = CacheControl.noCache().cachePrivate();
+        if (notModified(webRequest, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(revalidate).build();
+        }
+        T value = body.get();
+        if (value instanceof SummaryResponse summary && summary.isDegraded()) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(value);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(revalidate).body(value);
+    }
+
+    // comparação fraca, como WebRequest.checkNotModified, mas sem escrever já a ETag na resposta
+    private static boolean notModified(WebRequest webRequest, String etag) {
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+    }
+
+    // SYNC responde depois do commit próprio, GROUP_COMMIT depois do commit do grupo, ACCEPTED logo com 202
+    private CompletableFuture<ResponseEntity<Object>> write(WriteDurability durability, TransactionRequest request,
+                                                            Supplier<TransactionResponse> write) {
+        if (durability == WriteDurability.SYNC) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(write.get()));
+        }
+        transactionService.validate(request);
+        if (durability == WriteDurability.GROUP_COMMIT) {
+            return transactionWritePipeline.submit(write).thenApply(ResponseEntity::ok);
+        }
+        return CompletableFuture.completedFuture(
+                ResponseEntity.status(HttpStatus.ACCEPTED).body(transactionWritePipeline.accept(write)));
     }
 
 
     @GetMapping("/summary")
-    public SummaryResponse getSummary(
+    public ResponseEntity<SummaryResponse> getSummary(
             @RequestParam Long userId,
             @RequestParam String start,
-            @RequestParam String end) {
+            @RequestParam String end,
+            WebRequest webRequest) {
 
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        return transactionService.getSummary(userId, startDate, endDate);
+        return conditional(webRequest, dataVersionService.etagById(userId, "summary", start, end),
+                () -> transactionService.getSummary(userId, startDate, endDate));
     }
 
     //  ENDPOINT ALTERADO PARA LIDAR COM EMAIL
     @GetMapping("/by-email")
-    public List<TransactionResponse> getTransactionsByEmail(
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByEmail(
+            @RequestParam String email,
+            @RequestParam String start,
+            @RequestParam String end,
+            WebRequest webRequest
+    ) {
+        LocalDate startDate = LocalDate.parse(start);
+        LocalDate endDate = LocalDate.parse(end);
+        return conditional(webRequest, dataVersionService.etagByEmail(email, "list", start, end),
+                () -> transactionService.getTransactionsByEmailAndDateRange(email, startDate, endDate));
+    }
+
+    @GetMapping("/by-email/page")
+    public ResponseEntity<TransactionPage> getTransactionPageByEmail(
+            @RequestParam String email,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest webRequest
+    ) {
+        return conditional(webRequest, dataVersionService.etagByEmail(email, "page", start, end, cursor, size),
+                () -> transactionService.getTransactionPageByEmail(
+                        email, LocalDate.parse(start), LocalDate.parse(end), cursor, size));
+    }
+
+    // q procura na descrição; categoryId, type, minAmount, maxAmount, start e end filtram; cursor + size paginam
+    @GetMapping("/search/by-email")
+    public TransactionPage searchTransactionsByEmail(@RequestParam String email, TransactionSearchCriteria criteria) {
+        return transactionService.searchTransactionsByEmail(email, criteria);
+    }
+
+    @GetMapping("/search")
+    public TransactionPage searchTransactions(@RequestParam Long userId, TransactionSearchCriteria criteria) {
+        return transactionService.searchTransactions(userId, criteria);
+    }
+
+    @GetMapping("/by-email/stream")
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByEmail(
             @RequestParam String email,
             @RequestParam String start,
             @RequestParam String end
     ) {
+        Long userId = transactionService.findUserIdByEmail(email);
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        return transactionService.getTransactionsByEmailAndDateRange(email, startDate, endDate);
+
+        StreamingResponseBody body = out -> {
+            int[] written = {0};
+            try {
+                transactionService.streamTransactions(userId, startDate, endDate, t -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(t));
+                        out.write('\n');
+                        if (++written[0] % STREAM_FLUSH_EVERY == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionsByEmail(
+            @RequestParam String email,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(defaultValue = "true") boolean gzip
+    ) {
+        return export(transactionService.findUserIdByEmail(email), start, end, gzip);
+    }
+
+    @GetMapping("/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(defaultValue = "true") boolean gzip
+    ) {
+        return export(userId, start, end, gzip);
+    }
+
+    // o corpo é escrito numa thread do executor assíncrono do MVC, não na do pedido
+    private ResponseEntity<StreamingResponseBody> export(Long userId, String start, String end, boolean gzip) {
+        LocalDate startDate = start != null ? LocalDate.parse(start) : null;
+        LocalDate endDate = end != null ? LocalDate.parse(end) : null;
+        StreamingResponseBody body = out -> transactionCsvExporter.export(userId, startDate, endDate, out, gzip);
+
+        String fileName = gzip ? "transactions.csv.gz" : "transactions.csv";
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
     }
 
     @GetMapping("/summary/by-email")
-    public SummaryResponse getSummaryByEmail(
+    public ResponseEntity<SummaryResponse> getSummaryByEmail(
             @RequestParam String email,
             @RequestParam String start,
-            @RequestParam String end) {
-        return transactionService.getSummaryByEmail(email, LocalDate.parse(start), LocalDate.parse(end));
+            @RequestParam String end,
+            WebRequest webRequest) {
+        return conditional(webRequest, dataVersionService.etagByEmail(email, "summary", start, end),
+                () -> transactionService.getSummaryByEmail(email, LocalDate.parse(start), LocalDate.parse(end)));
+    }
+
+    // séries (granularity + start/end) ou comparação de intervalos (ranges=2025-01-01/2025-01-31,...)
+    @GetMapping("/summary/series/by-email")
+    public ResponseEntity<SummarySeriesResponse> getSummarySeriesByEmail(
+            @RequestParam String email,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) SummaryGranularity granularity,
+            @RequestParam(required = false) List<String> ranges,
+            WebRequest webRequest) {
+        return conditional(webRequest,
+                dataVersionService.etagByEmail(email, "series", start, end, granularity, ranges),
+                () -> summarySeries(transactionService.findUserIdByEmail(email), start, end, granularity, ranges));
+    }
+
+    @GetMapping("/summary/series")
+    public ResponseEntity<SummarySeriesResponse> getSummarySeries(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) SummaryGranularity granularity,
+            @RequestParam(required = false) List<String> ranges,
+            WebRequest webRequest) {
+        return conditional(webRequest,
+                dataVersionService.etagById(userId, "series", start, end, granularity, ranges),
+                () -> summarySeries(userId, start, end, granularity, ranges));
+    }
+
+    private SummarySeriesResponse summarySeries(Long userId, String start, String end,
+                                                SummaryGranularity granularity, List<String> ranges) {
+        if (ranges != null && !ranges.isEmpty()) {
+            return summarySeriesService.getRanges(userId, ranges.stream().map(DateRange::parse).toList());
+        }
+        if (start == null || end == null || granularity == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Either ranges or start, end and granularity are required");
+        }
+        return summarySeriesService.getSeries(userId, LocalDate.parse(start), LocalDate.parse(end), granularity);
     }
 
     @GetMapping("/totals/by-type/by-email")
-    public Map<String, Double> getTotalsByTypeByEmail(
+    public ResponseEntity<Map<String, Double>> getTotalsByTypeByEmail(
             @RequestParam String email,
             @RequestParam String start,
-            @RequestParam String end) {
-        return transactionService.getTotalsByTypeByEmail(email, LocalDate.parse(start), LocalDate.parse(end));
+            @RequestParam String end,
+            WebRequest webRequest) {
+        return conditional(webRequest, dataVersionService.etagByEmail(email, "totals-by-type", start, end),
+                () -> transactionService.getTotalsByTypeByEmail(email, LocalDate.parse(start), LocalDate.parse(end)));
     }
 
     @GetMapping("/totals/by-category/by-email")
-    public Map<String, Double> getTotalsByCategoryByEmail(
+    public ResponseEntity<Map<String, Double>> getTotalsByCategoryByEmail(
             @RequestParam String email,
             @RequestParam String start,
-            @RequestParam String end) {
-        return transactionService.getTotalsByCategoryByEmail(email, LocalDate.parse(start), LocalDate.parse(end));
+            @RequestParam String end,
+            WebRequest webRequest) {
+        return conditional(webRequest, dataVersionService.etagByEmail(email, "totals-by-category", start, end),
+                () -> transactionService.getTotalsByCategoryByEmail(email, LocalDate.parse(start),
+                        LocalDate.parse(end)));
     }
     @GetMapping("/balance/by-email")
-    public Double getBalanceByEmail(
+    public ResponseEntity<Double> getBalanceByEmail(
             @RequestParam String email,
             @RequestParam String start,
-            @RequestParam String end) {
+            @RequestParam String end,
+            WebRequest webRequest) {
 
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        return transactionService.calculateBalanceByEmail(email, startDate, endDate);
+        return conditional(webRequest, dataVersionService.etagByEmail(email, "balance", start, end),
+                () -> transactionService.calculateBalanceByEmail(email, startDate, endDate));
     }
 
 
     //  Antigo endpoint mantido para compatibilidade
     @GetMapping("/{userId}")
-    public List<TransactionResponse> getTransactions(@PathVariable Long userId) {
-        return transactionService.getAllTransactions(userId);
+    public ResponseEntity<List<TransactionResponse>> getTransactions(@PathVariable Long userId, WebRequest webRequest) {
+        return conditional(webRequest, dataVersionService.etagById(userId, "all"),
+                () -> transactionService.getAllTransactions(userId));
+    }
+
+    @GetMapping("/{userId}/page")
+    public ResponseEntity<TransactionPage> getTransactionPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest webRequest
+    ) {
+        return conditional(webRequest, dataVersionService.etagById(userId, "page", start, end, cursor, size),
+                () -> transactionService.getTransactionPage(userId,
+                        start != null ? LocalDate.parse(start) : null,
+                        end != null ? LocalDate.parse(end) : null,
+                        cursor, size));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,15 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRowError {
+    private int index; // posição da linha no pedido
+    private String message;
+}
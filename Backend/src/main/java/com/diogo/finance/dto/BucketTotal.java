@@ -0,0 +1,8 @@
+package com.diogo.finance.dto;
+
+import java.time.LocalDate;
+
+public interface BucketTotal extends TypeCategoryTotal {
+    // dia (ou primeiro dia do mês, quando vem de monthly_rollup)
+    LocalDate getBucket();
+}
@@ -0,0 +1,11 @@
+package com.diogo.finance.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BudgetRequest {
+    private Long categoryId;
+    private Double limit; // por mês
+}
@@ -0,0 +1,19 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class BudgetResponse {
+    private Long id;
+    private Long categoryId;
+    private String categoryName;
+    private LocalDate month; // primeiro dia do mês
+    private Double limit;
+    private Double spent;
+    private Double remaining;
+    private int alertedPercent; // maior limiar de alerta já atingido no mês (0 se nenhum)
+}
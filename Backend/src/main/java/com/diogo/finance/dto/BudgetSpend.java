@@ -0,0 +1,13 @@
+package com.diogo.finance.dto;
+
+import java.time.LocalDate;
+
+// linha de budget_spend junto com o orçamento
+public interface BudgetSpend {
+    Long getBudgetId();
+    Long getCategoryId();
+    LocalDate getMonth();
+    Long getLimitMinor();
+    Long getSpentMinor();
+    Integer getAlertedPercent();
+}
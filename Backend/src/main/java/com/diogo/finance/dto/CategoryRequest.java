@@ -0,0 +1,10 @@
+package com.diogo.finance.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CategoryRequest {
+    private String name;
+}
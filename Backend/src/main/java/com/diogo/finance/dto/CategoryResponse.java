@@ -0,0 +1,11 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CategoryResponse {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,22 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ImportJobStatus {
+    private String id;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String fileName;
+    private long rowsRead;
+    private long inserted;
+    private long failed;
+    private List<BatchRowError> errors; // apenas os primeiros erros
+    private String message;
+    private Instant createdAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,15 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class LiveUpdateMessage {
+    private String kind;                     // CREATED, UPDATED, DELETED ou BULK
+    private TransactionResponse transaction; // linha nova (null em DELETED/BULK)
+    private TransactionResponse previous;    // linha anterior (null em CREATED/BULK)
+    private SummaryResponse summary;         // resumo do intervalo subscrito, já com a alteração
+}
@@ -0,0 +1,19 @@
+package com.diogo.finance.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class RecurringRuleRequest {
+    private String description;
+    private Double amount;
+    private String type;      // "INCOME" ou "EXPENSE"
+    private Long categoryId;
+    private String frequency; // DAILY, WEEKLY, MONTHLY ou YEARLY
+    private Integer every = 1;
+    private LocalDate startDate;
+    private LocalDate endDate; // opcional
+}
@@ -0,0 +1,30 @@
+package com.diogo.finance.dto;
+
+import com.diogo.finance.model.Money;
+import com.diogo.finance.model.RecurringRule;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class RecurringRuleResponse {
+    private Long id;
+    private String description;
+    private Double amount;
+    private String type;
+    private Long categoryId;
+    private String frequency;
+    private Integer every;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDate nextDate; // null quando a regra terminou
+    private LocalDate lastDate;
+
+    public RecurringRuleResponse(RecurringRule rule) {
+        this(rule.getId(), rule.getDescription(), Money.toDouble(rule.getAmountMinor()), rule.getType().name(),
+                rule.getCategoryId(), rule.getFrequency().name(), rule.getEvery(), rule.getStartDate(),
+                rule.getEndDate(), rule.getNextDate(), rule.getLastDate());
+    }
+}
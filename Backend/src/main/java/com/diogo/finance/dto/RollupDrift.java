@@ -0,0 +1,11 @@
+package com.diogo.finance.dto;
+
+import java.time.LocalDate;
+
+public interface RollupDrift {
+    LocalDate getBucket();
+    String getType();
+    Long getCategoryId();
+    Long getExpected();
+    Long getActual();
+}
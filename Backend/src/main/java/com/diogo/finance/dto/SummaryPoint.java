@@ -0,0 +1,19 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class SummaryPoint {
+    private LocalDate start;
+    private LocalDate end;
+    private Double balance;
+    private Map<String, Double> totalsByType;
+    private Map<String, Double> totalsByCategory;
+}
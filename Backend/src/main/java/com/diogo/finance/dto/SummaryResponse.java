@@ -13,4 +13,10 @@ public class SummaryResponse {
     private Double balance;
     private Map<String, Double> totalsByType;
     private Map<String, Double> totalsByCategory;
+    // true quando alguma parte não respondeu a tempo; essa parte vem a null
+    private boolean degraded;
+
+    public SummaryResponse(Double balance, Map<String, Double> totalsByType, Map<String, Double> totalsByCategory) {
+        this(balance, totalsByType, totalsByCategory, false);
+    }
 }
@@ -0,0 +1,15 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class SummarySeriesResponse {
+    private SummaryGranularity granularity; // null quando os intervalos foram dados explicitamente
+    private List<SummaryPoint> points;
+}
@@ -0,0 +1,13 @@
+package com.diogo.finance.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class TransactionBatchRequest {
+    private String email;
+    private List<TransactionRequest> transactions;
+}
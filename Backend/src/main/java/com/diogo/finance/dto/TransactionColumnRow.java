@@ -0,0 +1,9 @@
+package com.diogo.finance.dto;
+
+import com.diogo.finance.model.TransactionType;
+
+import java.time.LocalDate;
+
+// linha lida para o ColumnarStore: só as colunas usadas nas agregações
+public record TransactionColumnRow(Long id, LocalDate date, Long amountMinor, TransactionType type, Long categoryId) {
+}
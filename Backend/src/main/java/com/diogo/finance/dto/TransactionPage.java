@@ -0,0 +1,15 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TransactionPage {
+    private List<TransactionResponse> items;
+    private String nextCursor; // null quando não há mais páginas
+}
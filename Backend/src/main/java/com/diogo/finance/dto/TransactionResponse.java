@@ -2,13 +2,17 @@ package com.diogo.finance.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
+import com.diogo.finance.model.Money;
 import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
 
 import java.time.LocalDate;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @AllArgsConstructor
 public class TransactionResponse {
     private Long id;
@@ -19,11 +23,18 @@ public class TransactionResponse {
     private Long categoryId;         // <-- novo campo
     private String categoryName;     // renomeei de "category" para deixar claro
 
+    // usado pelas constructor expressions JPQL, que leem o valor em cêntimos
+    public TransactionResponse(Long id, String description, Long amountMinor, TransactionType type, LocalDate date,
+                               Long categoryId, String categoryName) {
+        this(id, description, Money.toDouble(amountMinor), type != null ? type.name() : null, date,
+                categoryId, categoryName);
+    }
+
     public TransactionResponse(Transaction transaction) {
         this.id = transaction.getId();
         this.description = transaction.getDescription();
         this.amount = transaction.getAmount();
-        this.type = transaction.getType();
+        this.type = transaction.getType() != null ? transaction.getType().name() : null;
         this.date = transaction.getDate();
         this.categoryId = transaction.getCategory() != null ? transaction.getCategory().getId() : null;
         this.categoryName = transaction.getCategory() != null ? transaction.getCategory().getName() : null;
@@ -0,0 +1,26 @@
+package com.diogo.finance.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros da pesquisa de transações, lidos dos parâmetros do pedido. Todos são opcionais.
+ */
+@Getter
+@Setter
+public class TransactionSearchCriteria {
+    private String q; // palavras a procurar na descrição, pela ordem dada
+    private Long categoryId;
+    private String type; // "INCOME" ou "EXPENSE"
+    private Double minAmount;
+    private Double maxAmount;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate start;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate end;
+    private String cursor;
+    private int size = 50;
+}
@@ -0,0 +1,10 @@
+package com.diogo.finance.dto;
+
+public interface TypeCategoryTotal {
+    String getType();
+    String getCategoryName();
+    // soma em cêntimos
+    Long getTotal();
+    // linhas de origem agregadas (transações ou linhas de rollup), para métricas
+    Long getRowCount();
+}
@@ -0,0 +1,17 @@
+package com.diogo.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class WriteStatus {
+    private String id;
+    private String status; // PENDING, COMMITTED, FAILED
+    private TransactionResponse transaction; // só em COMMITTED
+    private String message; // só em FAILED
+    private Instant createdAt;
+    private Instant finishedAt;
+}
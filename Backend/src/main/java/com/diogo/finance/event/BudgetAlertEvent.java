@@ -0,0 +1,23 @@
+package com.diogo.finance.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Publicado por BudgetService quando o gasto de um mês passa um limiar de alerta
+ * (budget.alert-thresholds). Cada limiar dispara uma vez por orçamento e mês.
+ * Os listeners devem usar AFTER_COMMIT: se a escrita for revertida, o alerta não aconteceu.
+ */
+@Getter
+@AllArgsConstructor
+public class BudgetAlertEvent {
+    private final Long userId;
+    private final Long budgetId;
+    private final Long categoryId;
+    private final LocalDate month;
+    private final int thresholdPercent;
+    private final Double limit;
+    private final Double spent;
+}
@@ -0,0 +1,8 @@
+package com.diogo.finance.event;
+
+/**
+ * Publicado por CategoryService quando categorias são criadas, renomeadas ou apagadas.
+ * Os listeners que releem as categorias devem usar AFTER_COMMIT.
+ */
+public class CategoryChangedEvent {
+}
@@ -0,0 +1,28 @@
+package com.diogo.finance.event;
+
+import com.diogo.finance.dto.TransactionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Publicado por TransactionService sempre que as transações de um utilizador mudam.
+ * Os listeners que dependem de dados já gravados devem usar AFTER_COMMIT.
+ * Para escritas de uma só linha leva a linha nova e/ou a anterior; escritas em
+ * bloco (batch, importação) usam BULK sem linhas.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionChangedEvent {
+
+    public enum Kind { CREATED, UPDATED, DELETED, BULK }
+
+    private final Long userId;
+    private final String email;
+    private final Kind kind;
+    private final TransactionResponse transaction; // estado novo (null em DELETED/BULK)
+    private final TransactionResponse previous;    // estado anterior (null em CREATED/BULK)
+
+    public TransactionChangedEvent(Long userId, String email) {
+        this(userId, email, Kind.BULK, null, null);
+    }
+}
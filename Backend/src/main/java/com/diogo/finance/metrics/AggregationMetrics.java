@@ -0,0 +1,35 @@
+package com.diogo.finance.metrics;
+
+import com.diogo.finance.dto.TypeCategoryTotal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Contadores de linhas lidas (transações ou linhas de rollup agregadas pela base de
+ * dados) e devolvidas (linhas já agrupadas) por cada agregação.
+ */
+@Component
+public class AggregationMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public void record(String aggregation, boolean rollups, List<? extends TypeCategoryTotal> rows) {
+        record(aggregation, rollups ? "rollup" : "transaction", rows);
+    }
+
+    // source: rollup, transaction ou columnar
+    public void record(String aggregation, String source, List<? extends TypeCategoryTotal> rows) {
+        long scanned = 0;
+        for (TypeCategoryTotal row : rows) {
+            scanned += row.getRowCount() != null ? row.getRowCount() : 0;
+        }
+        meterRegistry.counter("finance.aggregation.rows.scanned", "aggregation", aggregation, "source", source)
+                .increment(scanned);
+        meterRegistry.counter("finance.aggregation.rows.returned", "aggregation", aggregation, "source", source)
+                .increment(rows.size());
+    }
+}
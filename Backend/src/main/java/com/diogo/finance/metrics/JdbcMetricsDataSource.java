@@ -0,0 +1,92 @@
+package com.diogo.finance.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede cada execução de statement (execute*, incluindo batches) no timer
+ * finance.jdbc.statement e soma-a às estatísticas do pedido em curso.
+ */
+public class JdbcMetricsDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    // o registry só é resolvido no primeiro uso: este DataSource é criado antes dele
+    private volatile Timer timer;
+
+    public JdbcMetricsDataSource(DataSource target, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(target);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    record(System.nanoTime() - start);
+                }
+            }
+            Object result = invoke(target, method, args);
+            // createStatement / prepareStatement / prepareCall
+            if (target instanceof Connection && result instanceof Statement
+                    && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy((Class<Statement>) method.getReturnType(), (Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private void record(long nanos) {
+        JdbcRequestStats.record(nanos);
+        Timer statementTimer = timer;
+        if (statementTimer == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            statementTimer = timer = Timer.builder("finance.jdbc.statement")
+                    .description("Execução de statements JDBC")
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        statementTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
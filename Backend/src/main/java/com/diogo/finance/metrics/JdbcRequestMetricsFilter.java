@@ -0,0 +1,61 @@
+package com.diogo.finance.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regista, por endpoint, quantos statements JDBC cada pedido executou e quanto tempo
+ * passou neles. Em pedidos assíncronos (streaming, SSE) só conta a parte síncrona.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JdbcRequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        JdbcRequestStats stats = JdbcRequestStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            JdbcRequestStats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            DistributionSummary.builder("finance.jdbc.request.statements")
+                    .description("Statements JDBC por pedido")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.statements());
+            Timer.builder("finance.jdbc.request.time")
+                    .description("Tempo em JDBC por pedido")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
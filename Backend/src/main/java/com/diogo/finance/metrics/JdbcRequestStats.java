@@ -0,0 +1,63 @@
+package com.diogo.finance.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Número de statements JDBC e tempo acumulado do pedido HTTP em curso. O
+ * JdbcRequestMetricsFilter abre-a no início do pedido; tarefas que correm noutras
+ * threads em nome do pedido (ex.: partes do resumo) herdam-na com {@link #wrap}.
+ */
+public final class JdbcRequestStats {
+
+    private static final ThreadLocal<JdbcRequestStats> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    static JdbcRequestStats begin() {
+        JdbcRequestStats stats = new JdbcRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedNanos) {
+        JdbcRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.increment();
+            stats.nanos.add(elapsedNanos);
+        }
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        JdbcRequestStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            JdbcRequestStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    long statements() {
+        return statements.sum();
+    }
+
+    long nanos() {
+        return nanos.sum();
+    }
+}
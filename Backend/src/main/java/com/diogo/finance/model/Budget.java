@@ -0,0 +1,37 @@
+package com.diogo.finance.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Limite mensal de despesa de um utilizador numa categoria. O gasto de cada mês fica
+ * em budget_spend, escrito apenas por SQL nativo no BudgetService.
+ */
+@Entity
+@Table(name = "budget", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "category_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class Budget {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    // limite em cêntimos
+    @Column(name = "limit_minor", nullable = false)
+    private Long limitMinor;
+}
@@ -0,0 +1,12 @@
+package com.diogo.finance.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+@Entity
+// a chave única (user_id, bucket, type, category_id) é um índice sobre coalesce, criado pela V11
+@Table(name = "daily_rollup")
+@NoArgsConstructor
+public class DailyRollup extends Rollup {
+}
@@ -0,0 +1,58 @@
+package com.diogo.finance.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Resposta guardada de um pedido de escrita com Idempotency-Key. O scope é o
+ * utilizador autenticado, pelo que a mesma chave em contas diferentes não colide.
+ */
+@Entity
+@Table(name = "idempotency_key")
+@IdClass(IdempotencyRecord.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    private String scope;
+
+    @Id
+    @Column(name = "idem_key", length = 128)
+    private String idemKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // JSON da resposta; null enquanto a escrita original não terminou
+    @Column(columnDefinition = "text")
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String scope;
+        private String idemKey;
+    }
+}
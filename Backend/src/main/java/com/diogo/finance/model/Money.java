@@ -0,0 +1,43 @@
+package com.diogo.finance.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversão entre os valores da API (Double, em euros) e as unidades mínimas (cêntimos,
+ * long) em que os montantes são guardados e somados. As somas em long são exatas; a
+ * conversão para double só acontece na fronteira da API.
+ */
+public final class Money {
+
+    private static final int FRACTION_DIGITS = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converte um valor vindo da API para unidades mínimas. Null conta como zero, como
+     * nas somas em SQL.
+     */
+    public static long toMinor(Double amount) {
+        if (amount == null) {
+            return 0;
+        }
+        if (amount.isNaN() || amount.isInfinite()) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+        // BigDecimal.valueOf usa a representação decimal mais curta do double (12.3 -> 12.3, não 12.2999...)
+        return BigDecimal.valueOf(amount)
+                .setScale(FRACTION_DIGITS, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    /**
+     * Converte unidades mínimas para o Double exposto na API. A divisão é corretamente
+     * arredondada: devolve o double mais próximo do valor exato.
+     */
+    public static Double toDouble(Long minor) {
+        return minor == null ? null : minor / 100.0;
+    }
+}
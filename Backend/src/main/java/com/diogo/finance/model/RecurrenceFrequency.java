@@ -0,0 +1,21 @@
+package com.diogo.finance.model;
+
+import java.time.LocalDate;
+
+public enum RecurrenceFrequency {
+    DAILY, WEEKLY, MONTHLY, YEARLY;
+
+    /**
+     * Data da ocorrência n (a partir de 0). Calculada sempre a partir do início, e não da
+     * ocorrência anterior, para que uma regra mensal de dia 31 volte ao dia 31 depois de fevereiro.
+     */
+    public LocalDate occurrence(LocalDate start, int every, long n) {
+        long steps = n * every;
+        return switch (this) {
+            case DAILY -> start.plusDays(steps);
+            case WEEKLY -> start.plusWeeks(steps);
+            case MONTHLY -> start.plusMonths(steps);
+            case YEARLY -> start.plusYears(steps);
+        };
+    }
+}
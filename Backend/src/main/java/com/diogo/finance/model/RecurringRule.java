@@ -0,0 +1,80 @@
+package com.diogo.finance.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Transação que se repete a cada {@code every} dias/semanas/meses/anos desde startDate,
+ * até endDate (inclusive) se existir. nextIndex é o número de ocorrências já gravadas e
+ * nextDate a data da seguinte (null quando a regra terminou).
+ */
+@Entity
+@Table(name = "recurring_rule")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RecurringRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    private String description;
+
+    // valor em cêntimos
+    @Column(name = "amount_minor", nullable = false)
+    private Long amountMinor;
+
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RecurrenceFrequency frequency;
+
+    @Column(nullable = false)
+    private Integer every;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "next_index", nullable = false)
+    private Long nextIndex;
+
+    @Column(name = "next_date")
+    private LocalDate nextDate;
+
+    // data da última ocorrência gravada
+    @Column(name = "last_date")
+    private LocalDate lastDate;
+
+    public LocalDate occurrence(long n) {
+        LocalDate date = frequency.occurrence(startDate, every, n);
+        return endDate != null && date.isAfter(endDate) ? null : date;
+    }
+
+    // avança para a ocorrência n (a próxima por gravar)
+    public void moveTo(long n) {
+        nextIndex = n;
+        nextDate = occurrence(n);
+    }
+}
@@ -0,0 +1,44 @@
+package com.diogo.finance.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Totais pré-agregados de um utilizador por bucket (dia ou mês), tipo e categoria.
+ * As linhas são escritas apenas por SQL nativo (upsert) no RollupService.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class Rollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate bucket;
+
+    private TransactionType type;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    // soma em cêntimos
+    @Column(name = "total_minor")
+    private Long total;
+
+    @Column(name = "tx_count")
+    private Long txCount;
+}
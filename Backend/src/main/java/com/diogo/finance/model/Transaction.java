@@ -1,9 +1,15 @@
 package com.diogo.finance.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,25 +18,40 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity
+// o esquema é gerido pelas migrações Flyway (db/migration); o índice fica aqui para documentar as listagens
+@Table(indexes = @Index(name = "idx_transaction_user_date_id", columnList = "user_id, date desc, id desc"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
+    // allocationSize tem de coincidir com o INCREMENT BY da sequência existente
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     private String description;
-    private Double amount;
+    // valor em cêntimos; a API continua a expor amount como decimal
+    @Column(name = "amount_minor")
+    private Long amountMinor;
+
     private LocalDate date;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
-    private String type; // "INCOME" ou "EXPENSE"
+    private TransactionType type;
+
+    public Double getAmount() {
+        return Money.toDouble(amountMinor);
+    }
+
+    public void setAmount(Double amount) {
+        this.amountMinor = amount != null ? Money.toMinor(amount) : null;
+    }
 }
 
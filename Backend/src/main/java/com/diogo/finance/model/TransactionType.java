@@ -0,0 +1,45 @@
+package com.diogo.finance.model;
+
+import java.util.Locale;
+
+/**
+ * Tipo de transação, gravado como smallint (ver TransactionTypeConverter). Os
+ * códigos são persistidos e não podem mudar.
+ */
+public enum TransactionType {
+    INCOME((short) 0),
+    EXPENSE((short) 1);
+
+    private final short code;
+
+    TransactionType(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static TransactionType fromCode(short code) {
+        for (TransactionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type code: " + code);
+    }
+
+    /**
+     * Devolve o tipo com o nome dado (sem distinguir maiúsculas), ou null se não existir.
+     */
+    public static TransactionType parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.diogo.finance.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TransactionTypeConverter implements AttributeConverter<TransactionType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TransactionType type) {
+        return type != null ? type.getCode() : null;
+    }
+
+    @Override
+    public TransactionType convertToEntityAttribute(Short code) {
+        return code != null ? TransactionType.fromCode(code) : null;
+    }
+}
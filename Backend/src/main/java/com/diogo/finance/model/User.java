@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "users")
@@ -22,4 +23,10 @@ public class User {
 
     private String password;
     private String name;
+
+    // só o UserRepository.incrementDataVersion a altera (ver DataVersionService); updatable = false
+    // para um flush da entidade não repor um valor lido antes do incremento
+    @ColumnDefault("0")
+    @Column(name = "data_version", nullable = false, updatable = false)
+    private long dataVersion;
 }
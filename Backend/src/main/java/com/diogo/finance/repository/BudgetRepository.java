@@ -0,0 +1,111 @@
+package com.diogo.finance.repository;
+
+import com.diogo.finance.dto.BudgetSpend;
+import com.diogo.finance.model.Budget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Orçamentos e a tabela budget_spend, esta só com SQL nativo (Postgres). O gasto de um
+ * mês sem linha em budget_spend é o total de despesa em monthly_rollup.
+ */
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+
+    List<Budget> findByUserIdOrderById(Long userId);
+
+    Optional<Budget> findByIdAndUserId(Long id, Long userId);
+
+    boolean existsByUserIdAndCategoryId(Long userId, Long categoryId);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    /**
+     * Soma delta ao gasto do mês do orçamento (user, categoria), se existir, e devolve a linha
+     * atualizada. Uma linha nova começa no total de monthly_rollup, que já inclui a escrita
+     * corrente (os rollups são atualizados antes). Um só statement, pelas chaves únicas.
+     */
+    @Query(value = """
+            with b as (
+                select id, category_id, limit_minor from budget
+                where user_id = :userId and category_id = :categoryId
+            ), s as (
+                insert into budget_spend (budget_id, month, spent_minor)
+                select b.id, :month, coalesce((
+                    select r.total_minor from monthly_rollup r
+                    where r.user_id = :userId and r.bucket = :month and r.type = :type and r.category_id = :categoryId
+                ), 0)
+                from b
+                on conflict (budget_id, month) do update set spent_minor = budget_spend.spent_minor + :delta
+                returning budget_id, month, spent_minor, alerted_percent
+            )
+            select s.budget_id as budgetId, b.category_id as categoryId, s.month as month,
+                   b.limit_minor as limitMinor, s.spent_minor as spentMinor, cast(s.alerted_percent as int) as alertedPercent
+            from s join b on b.id = s.budget_id
+            """, nativeQuery = true)
+    List<BudgetSpend> addSpend(@Param("userId") Long userId,
+                               @Param("categoryId") Long categoryId,
+                               @Param("month") LocalDate month,
+                               @Param("type") Short type,
+                               @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "update budget_spend set alerted_percent = :percent where budget_id = :budgetId and month = :month",
+            nativeQuery = true)
+    void updateAlertedPercent(@Param("budgetId") Long budgetId,
+                              @Param("month") LocalDate month,
+                              @Param("percent") int percent);
+
+    @Query(value = """
+            select b.id as budgetId, b.category_id as categoryId, cast(:month as date) as month,
+                   b.limit_minor as limitMinor, coalesce(s.spent_minor, r.total_minor, 0) as spentMinor,
+                   cast(coalesce(s.alerted_percent, 0) as int) as alertedPercent
+            from budget b
+            left join budget_spend s on s.budget_id = b.id and s.month = :month
+            left join monthly_rollup r on r.user_id = b.user_id and r.bucket = :month and r.type = :type
+                 and r.category_id = b.category_id
+            where b.user_id = :userId
+            order by b.id
+            """, nativeQuery = true)
+    List<BudgetSpend> findSpend(@Param("userId") Long userId,
+                                @Param("month") LocalDate month,
+                                @Param("type") Short type);
+
+    @Query(value = "select distinct user_id from budget", nativeQuery = true)
+    List<Long> findUserIdsWithBudgets();
+
+    /**
+     * Bloqueia as linhas de gasto do utilizador a partir de since. Com o lock, as escritas
+     * concorrentes ou já terminaram (e a soma seguinte vê-as) ou esperam e somam o seu
+     * delta depois da correção.
+     */
+    @Query(value = """
+            select s.budget_id from budget_spend s join budget b on b.id = s.budget_id
+            where b.user_id = :userId and s.month >= :since
+            order by s.budget_id, s.month
+            for update of s
+            """, nativeQuery = true)
+    List<Long> lockSpend(@Param("userId") Long userId, @Param("since") LocalDate since);
+
+    // recalcula o gasto a partir das transações e devolve o número de linhas corrigidas
+    @Modifying
+    @Query(value = """
+            update budget_spend s set spent_minor = x.total
+            from (
+                select b.id as budget_id, s2.month, coalesce(sum(t.amount_minor), 0) as total
+                from budget b
+                join budget_spend s2 on s2.budget_id = b.id
+                left join transaction t on t.user_id = b.user_id and t.category_id = b.category_id
+                     and t.type = :type and t.date >= s2.month and t.date < cast(s2.month + interval '1 month' as date)
+                where b.user_id = :userId and s2.month >= :since
+                group by b.id, s2.month
+            ) x
+            where s.budget_id = x.budget_id and s.month = x.month and s.spent_minor <> x.total
+            """, nativeQuery = true)
+    int reconcileSpend(@Param("userId") Long userId, @Param("since") LocalDate since, @Param("type") Short type);
+}
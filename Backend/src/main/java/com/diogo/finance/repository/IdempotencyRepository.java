@@ -0,0 +1,45 @@
+package com.diogo.finance.repository;
+
+import com.diogo.finance.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRepository extends Repository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    /**
+     * Reserva a chave na transação corrente e devolve 1, ou 0 se já existe uma reserva
+     * válida. Se essa reserva pertence a uma transação ainda aberta, o Postgres espera
+     * que ela termine antes de responder. Uma reserva expirada é reaproveitada.
+     */
+    @Modifying
+    @Query(value = """
+            insert into idempotency_key (scope, idem_key, request_hash, response, created_at, expires_at)
+            values (:scope, :key, :hash, null, :now, :expiresAt)
+            on conflict (scope, idem_key) do update
+            set request_hash = excluded.request_hash, response = null,
+                created_at = excluded.created_at, expires_at = excluded.expires_at
+            where idempotency_key.expires_at < excluded.created_at
+            """, nativeQuery = true)
+    int claim(@Param("scope") String scope,
+              @Param("key") String key,
+              @Param("hash") String hash,
+              @Param("now") Instant now,
+              @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query(value = "update idempotency_key set response = :response where scope = :scope and idem_key = :key",
+            nativeQuery = true)
+    int complete(@Param("scope") String scope, @Param("key") String key, @Param("response") String response);
+
+    @Query("select r from IdempotencyRecord r where r.scope = :scope and r.idemKey = :key")
+    Optional<IdempotencyRecord> find(@Param("scope") String scope, @Param("key") String key);
+
+    @Modifying
+    @Query(value = "delete from idempotency_key where expires_at < :now", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now);
+}
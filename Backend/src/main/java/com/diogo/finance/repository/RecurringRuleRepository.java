@@ -0,0 +1,47 @@
+package com.diogo.finance.repository;
+
+import com.diogo.finance.model.RecurringRule;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface RecurringRuleRepository extends JpaRepository<RecurringRule, Long> {
+
+    List<RecurringRule> findByUserIdOrderById(Long userId);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    // bloqueia a regra para a alteração não se cruzar com uma passagem do agendador
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RecurringRule> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Próximas regras vencidas, pela ordem da data (índice parcial em next_date). As linhas
+     * ficam bloqueadas até ao fim da transação; as que outra instância já bloqueou são saltadas.
+     */
+    @Query(value = """
+            select * from recurring_rule
+            where next_date is not null and next_date <= :today
+            order by next_date, id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<RecurringRule> lockDue(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    // o mesmo, só com as regras de um utilizador (índice em user_id)
+    @Query(value = """
+            select * from recurring_rule
+            where user_id = :userId and next_date is not null and next_date <= :today
+            order by next_date, id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<RecurringRule> lockDueByUserId(@Param("userId") Long userId, @Param("today") LocalDate today,
+                                        @Param("limit") int limit);
+}
@@ -0,0 +1,260 @@
+package com.diogo.finance.repository;
+
+import com.diogo.finance.dto.BucketTotal;
+import com.diogo.finance.dto.RollupDrift;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.model.DailyRollup;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Acesso às tabelas daily_rollup e monthly_rollup. Todas as escritas são upserts
+ * nativos (Postgres) para que escritas concorrentes no mesmo bucket não colidam.
+ * A coluna type guarda o código smallint de TransactionType; as leituras devolvem o nome.
+ * O alvo do on conflict é o índice único uk_*_rollup_key (V11), com coalesce para que as
+ * linhas com type ou category_id null também colidam.
+ */
+public interface RollupRepository extends Repository<DailyRollup, Long> {
+
+    @Modifying
+    @Query(value = """
+            insert into daily_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+            values (:userId, :bucket, :type, :categoryId, :total, :count)
+            on conflict (user_id, bucket, coalesce(type, -1), coalesce(category_id, -1)) do update
+            set total_minor = daily_rollup.total_minor + excluded.total_minor,
+                tx_count = daily_rollup.tx_count + excluded.tx_count
+            """, nativeQuery = true)
+    void upsertDaily(@Param("userId") Long userId,
+                     @Param("bucket") LocalDate bucket,
+                     @Param("type") Short type,
+                     @Param("categoryId") Long categoryId,
+                     @Param("total") long total,
+                     @Param("count") long count);
+
+    @Modifying
+    @Query(value = """
+            insert into monthly_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+            values (:userId, :bucket, :type, :categoryId, :total, :count)
+            on conflict (user_id, bucket, coalesce(type, -1), coalesce(category_id, -1)) do update
+            set total_minor = monthly_rollup.total_minor + excluded.total_minor,
+                tx_count = monthly_rollup.tx_count + excluded.tx_count
+            """, nativeQuery = true)
+    void upsertMonthly(@Param("userId") Long userId,
+                       @Param("bucket") LocalDate bucket,
+                       @Param("type") Short type,
+                       @Param("categoryId") Long categoryId,
+                       @Param("total") long total,
+                       @Param("count") long count);
+
+    /**
+     * Meses completos a partir de monthly_rollup e pontas do intervalo (head/tail) a partir
+     * de daily_rollup, como linhas (type, category_id, total). Intervalos vazios são passados
+     * com from > to.
+     */
+    String SUMMARY_SOURCE = """
+            (
+                select m.type, m.category_id, m.total_minor as total from monthly_rollup m
+                where m.user_id = :userId and m.bucket between :monthFrom and :monthTo and m.tx_count > 0
+                union all
+                select d.type, d.category_id, d.total_minor as total from daily_rollup d
+                where d.user_id = :userId and d.tx_count > 0
+                  and (d.bucket between :headFrom and :headTo or d.bucket between :tailFrom and :tailTo)
+            ) x
+            """;
+
+    @Query(value = """
+            select case x.type when 0 then 'INCOME' when 1 then 'EXPENSE' end as type, c.name as categoryName, sum(x.total) as total, count(*) as rowCount
+            from """ + SUMMARY_SOURCE + """
+            left join category c on c.id = x.category_id
+            group by x.type, c.name
+            """, nativeQuery = true)
+    List<TypeCategoryTotal> summarize(@Param("userId") Long userId,
+                                      @Param("monthFrom") LocalDate monthFrom,
+                                      @Param("monthTo") LocalDate monthTo,
+                                      @Param("headFrom") LocalDate headFrom,
+                                      @Param("headTo") LocalDate headTo,
+                                      @Param("tailFrom") LocalDate tailFrom,
+                                      @Param("tailTo") LocalDate tailTo);
+
+    // partes independentes do resumo, para serem calculadas em paralelo
+
+    @Query(value = """
+            select cast(coalesce(sum(case x.type when 0 then x.total else -x.total end), 0) as bigint)
+            from """ + SUMMARY_SOURCE, nativeQuery = true)
+    long summarizeBalance(@Param("userId") Long userId,
+                          @Param("monthFrom") LocalDate monthFrom,
+                          @Param("monthTo") LocalDate monthTo,
+                          @Param("headFrom") LocalDate headFrom,
+                          @Param("headTo") LocalDate headTo,
+                          @Param("tailFrom") LocalDate tailFrom,
+                          @Param("tailTo") LocalDate tailTo);
+
+    @Query(value = """
+            select case x.type when 0 then 'INCOME' when 1 then 'EXPENSE' end as type, sum(x.total) as total, count(*) as rowCount
+            from """ + SUMMARY_SOURCE + """
+            group by x.type
+            """, nativeQuery = true)
+    List<TypeCategoryTotal> summarizeByType(@Param("userId") Long userId,
+                                            @Param("monthFrom") LocalDate monthFrom,
+                                            @Param("monthTo") LocalDate monthTo,
+                                            @Param("headFrom") LocalDate headFrom,
+                                            @Param("headTo") LocalDate headTo,
+                                            @Param("tailFrom") LocalDate tailFrom,
+                                            @Param("tailTo") LocalDate tailTo);
+
+    @Query(value = """
+            select c.name as categoryName, sum(x.total) as total, count(*) as rowCount
+            from """ + SUMMARY_SOURCE + """
+            left join category c on c.id = x.category_id
+            group by c.name
+            """, nativeQuery = true)
+    List<TypeCategoryTotal> summarizeByCategory(@Param("userId") Long userId,
+                                                @Param("monthFrom") LocalDate monthFrom,
+                                                @Param("monthTo") LocalDate monthTo,
+                                                @Param("headFrom") LocalDate headFrom,
+                                                @Param("headTo") LocalDate headTo,
+                                                @Param("tailFrom") LocalDate tailFrom,
+                                                @Param("tailTo") LocalDate tailTo);
+
+    @Query(value = """
+            select d.bucket as bucket, case d.type when 0 then 'INCOME' when 1 then 'EXPENSE' end as type,
+                   c.name as categoryName, sum(d.total_minor) as total, count(*) as rowCount
+            from daily_rollup d
+            left join category c on c.id = d.category_id
+            where d.user_id = :userId and d.bucket between :start and :end and d.tx_count > 0
+            group by d.bucket, d.type, c.name
+            """, nativeQuery = true)
+    List<BucketTotal> findDailyTotals(@Param("userId") Long userId,
+                                      @Param("start") LocalDate start,
+                                      @Param("end") LocalDate end);
+
+    @Query(value = """
+            select m.bucket as bucket, case m.type when 0 then 'INCOME' when 1 then 'EXPENSE' end as type,
+                   c.name as categoryName, sum(m.total_minor) as total, count(*) as rowCount
+            from monthly_rollup m
+            left join category c on c.id = m.category_id
+            where m.user_id = :userId and m.bucket between :monthFrom and :monthTo and m.tx_count > 0
+            group by m.bucket, m.type, c.name
+            """, nativeQuery = true)
+    List<BucketTotal> findMonthlyTotals(@Param("userId") Long userId,
+                                        @Param("monthFrom") LocalDate monthFrom,
+                                        @Param("monthTo") LocalDate monthTo);
+
+    @Query(value = "select count(*) from daily_rollup", nativeQuery = true)
+    long countDaily();
+
+    @Modifying
+    @Query(value = "delete from daily_rollup where user_id = :userId", nativeQuery = true)
+    void deleteDaily(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "delete from monthly_rollup where user_id = :userId", nativeQuery = true)
+    void deleteMonthly(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "delete from daily_rollup", nativeQuery = true)
+    void deleteAllDaily();
+
+    @Modifying
+    @Query(value = "delete from monthly_rollup", nativeQuery = true)
+    void deleteAllMonthly();
+
+    @Modifying
+    @Query(value = """
+            insert into daily_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+            select t.user_id, t.date, t.type, t.category_id, sum(t.amount_minor), count(*)
+            from transaction t
+            where t.user_id = :userId and t.date is not null
+            group by t.user_id, t.date, t.type, t.category_id
+            """, nativeQuery = true)
+    void rebuildDaily(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = """
+            insert into daily_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+            select t.user_id, t.date, t.type, t.category_id, sum(t.amount_minor), count(*)
+            from transaction t
+            where t.user_id is not null and t.date is not null
+            group by t.user_id, t.date, t.type, t.category_id
+            """, nativeQuery = true)
+    void rebuildAllDaily();
+
+    @Modifying
+    @Query(value = """
+            insert into monthly_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+            select d.user_id, cast(date_trunc('month', d.bucket) as date), d.type, d.category_id,
+                   sum(d.total_minor), sum(d.tx_count)
+            from daily_rollup d
+            where d.user_id = :userId
+            group by d.user_id, cast(date_trunc('month', d.bucket) as date), d.type, d.category_id
+            """, nativeQuery = true)
+    void rebuildMonthly(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = """
+            insert into monthly_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+            select d.user_id, cast(date_trunc('month', d.bucket) as date), d.type, d.category_id,
+                   sum(d.total_minor), sum(d.tx_count)
+            from daily_rollup d
+            group by d.user_id, cast(date_trunc('month', d.bucket) as date), d.type, d.category_id
+            """, nativeQuery = true)
+    void rebuildAllMonthly();
+
+    /**
+     * Compara daily_rollup com a agregação feita diretamente sobre transaction.
+     */
+    @Query(value = """
+            select coalesce(r.bucket, d.bucket) as bucket,
+                   case coalesce(r.type, d.type) when 0 then 'INCOME' when 1 then 'EXPENSE' end as type,
+                   coalesce(r.category_id, d.category_id) as categoryId,
+                   coalesce(r.total, 0) as expected, coalesce(d.total, 0) as actual
+            from (
+                select t.date as bucket, t.type, t.category_id, sum(t.amount_minor) as total, count(*) as cnt
+                from transaction t where t.user_id = :userId and t.date is not null
+                group by t.date, t.type, t.category_id
+            ) r
+            full outer join (
+                select bucket, type, category_id, total_minor as total, tx_count as cnt
+                from daily_rollup where user_id = :userId and tx_count > 0
+            ) d
+            on r.bucket = d.bucket and r.type is not distinct from d.type
+               and r.category_id is not distinct from d.category_id
+            where r.bucket is null or d.bucket is null or r.cnt <> d.cnt or r.total is distinct from d.total
+            """, nativeQuery = true)
+    List<RollupDrift> findDailyDrift(@Param("userId") Long userId);
+
+    /**
+     * Compara monthly_rollup com a soma dos daily_rollup de cada mês.
+     */
+    @Query(value = """
+            select coalesce(r.bucket, m.bucket) as bucket,
+                   case coalesce(r.type, m.type) when 0 then 'INCOME' when 1 then 'EXPENSE' end as type,
+                   coalesce(r.category_id, m.category_id) as categoryId,
+                   coalesce(r.total, 0) as expected, coalesce(m.total, 0) as actual
+            from (
+                select cast(date_trunc('month', d.bucket) as date) as bucket, d.type, d.category_id,
+                       sum(d.total_minor) as total, sum(d.tx_count) as cnt
+                from daily_rollup d where d.user_id = :userId and d.tx_count > 0
+                group by cast(date_trunc('month', d.bucket) as date), d.type, d.category_id
+            ) r
+            full outer join (
+                select bucket, type, category_id, total_minor as total, tx_count as cnt
+                from monthly_rollup where user_id = :userId and tx_count > 0
+            ) m
+            on r.bucket = m.bucket and r.type is not distinct from m.type
+               and r.category_id is not distinct from m.category_id
+            where r.bucket is null or m.bucket is null or r.cnt <> m.cnt or r.total is distinct from m.total
+            """, nativeQuery = true)
+    List<RollupDrift> findMonthlyDrift(@Param("userId") Long userId);
+
+    @Query(value = "select distinct t.user_id from transaction t where t.user_id is not null", nativeQuery = true)
+    List<Long> findUserIdsWithTransactions();
+
+    @Query(value = "select user_id from monthly_rollup union select user_id from daily_rollup", nativeQuery = true)
+    List<Long> findUserIdsWithRollups();
+}
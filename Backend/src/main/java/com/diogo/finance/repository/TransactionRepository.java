@@ -1,12 +1,27 @@
 package com.diogo.finance.repository;
 
+import com.diogo.finance.dto.BucketTotal;
+import com.diogo.finance.dto.TransactionColumnRow;
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.dto.TypeCategoryTotal;
 import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
 import com.diogo.finance.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -16,4 +31,162 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByUserOrderByDateDesc(User user);
     List<Transaction> findByUserAndDateBetween(User user, LocalDate startDate, LocalDate endDate);
     List<Transaction> findByUserAndDateBetweenOrderByDateDesc(User user, LocalDate start, LocalDate end);
-}
\ No newline at end of file
+
+    @Query("""
+            select t.type as type, c.name as categoryName, sum(t.amountMinor) as total, count(*) as rowCount
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+            group by t.type, c.name
+            """)
+    List<TypeCategoryTotal> sumByTypeAndCategory(@Param("userId") Long userId,
+                                                 @Param("start") LocalDate start,
+                                                 @Param("end") LocalDate end);
+
+    @Query("""
+            select t.type as type, c.name as categoryName, sum(t.amountMinor) as total, count(*) as rowCount
+            from Transaction t left join t.category c
+            where t.user.email = :email and t.date between :start and :end
+            group by t.type, c.name
+            """)
+    List<TypeCategoryTotal> sumByTypeAndCategoryByEmail(@Param("email") String email,
+                                                        @Param("start") LocalDate start,
+                                                        @Param("end") LocalDate end);
+
+    // partes independentes do resumo, para serem calculadas em paralelo
+
+    @Query("""
+            select coalesce(sum(case when t.type = com.diogo.finance.model.TransactionType.INCOME
+                                     then t.amountMinor else -t.amountMinor end), 0)
+            from Transaction t
+            where t.user.id = :userId and t.date between :start and :end
+            """)
+    long sumBalance(@Param("userId") Long userId,
+                    @Param("start") LocalDate start,
+                    @Param("end") LocalDate end);
+
+    @Query("""
+            select t.type as type, sum(t.amountMinor) as total, count(*) as rowCount
+            from Transaction t
+            where t.user.id = :userId and t.date between :start and :end
+            group by t.type
+            """)
+    List<TypeCategoryTotal> sumByType(@Param("userId") Long userId,
+                                      @Param("start") LocalDate start,
+                                      @Param("end") LocalDate end);
+
+    @Query("""
+            select c.name as categoryName, sum(t.amountMinor) as total, count(*) as rowCount
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+            group by c.name
+            """)
+    List<TypeCategoryTotal> sumByCategory(@Param("userId") Long userId,
+                                          @Param("start") LocalDate start,
+                                          @Param("end") LocalDate end);
+
+    @Query("""
+            select t.date as bucket, t.type as type, c.name as categoryName, sum(t.amountMinor) as total, count(*) as rowCount
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+            group by t.date, t.type, c.name
+            """)
+    List<BucketTotal> sumByDateTypeAndCategory(@Param("userId") Long userId,
+                                               @Param("start") LocalDate start,
+                                               @Param("end") LocalDate end);
+
+    @EntityGraph(attributePaths = {"user", "category"})
+    Optional<Transaction> findWithAssociationsById(Long id);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    @Query("""
+            select new com.diogo.finance.dto.TransactionResponse(t.id, t.description, t.amountMinor, t.type, t.date, c.id, c.name)
+            from Transaction t left join t.category c
+            where t.user.id = :userId
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            select new com.diogo.finance.dto.TransactionResponse(t.id, t.description, t.amountMinor, t.type, t.date, c.id, c.name)
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionResponse> findResponsesByUserIdAndDateBetween(@Param("userId") Long userId,
+                                                                  @Param("start") LocalDate start,
+                                                                  @Param("end") LocalDate end);
+
+    @Query("""
+            select new com.diogo.finance.dto.TransactionResponse(t.id, t.description, t.amountMinor, t.type, t.date, c.id, c.name)
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionResponse> findFirstPage(@Param("userId") Long userId,
+                                            @Param("start") LocalDate start,
+                                            @Param("end") LocalDate end,
+                                            Pageable pageable);
+
+    @Query("""
+            select new com.diogo.finance.dto.TransactionResponse(t.id, t.description, t.amountMinor, t.type, t.date, c.id, c.name)
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+              and (t.date < :afterDate or (t.date = :afterDate and t.id < :afterId))
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionResponse> findPageAfter(@Param("userId") Long userId,
+                                            @Param("start") LocalDate start,
+                                            @Param("end") LocalDate end,
+                                            @Param("afterDate") LocalDate afterDate,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    /**
+     * Pesquisa com filtros opcionais (null = sem filtro) e paginação keyset. O padrão é
+     * comparado com lower(description), servido pelo índice de trigramas (V6).
+     */
+    @Query("""
+            select new com.diogo.finance.dto.TransactionResponse(t.id, t.description, t.amountMinor, t.type, t.date, c.id, c.name)
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+              and (:pattern is null or lower(t.description) like :pattern escape '\\')
+              and (:categoryId is null or c.id = :categoryId)
+              and (:type is null or t.type = :type)
+              and (:minAmount is null or t.amountMinor >= :minAmount)
+              and (:maxAmount is null or t.amountMinor <= :maxAmount)
+              and (:afterId is null or t.date < :afterDate or (t.date = :afterDate and t.id < :afterId))
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionResponse> search(@Param("userId") Long userId,
+                                     @Param("start") LocalDate start,
+                                     @Param("end") LocalDate end,
+                                     @Param("pattern") String pattern,
+                                     @Param("categoryId") Long categoryId,
+                                     @Param("type") TransactionType type,
+                                     @Param("minAmount") Long minAmount,
+                                     @Param("maxAmount") Long maxAmount,
+                                     @Param("afterDate") LocalDate afterDate,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.diogo.finance.dto.TransactionResponse(t.id, t.description, t.amountMinor, t.type, t.date, c.id, c.name)
+            from Transaction t left join t.category c
+            where t.user.id = :userId and t.date between :start and :end
+            order by t.date desc, t.id desc
+            """)
+    Stream<TransactionResponse> streamByUserAndDateBetween(@Param("userId") Long userId,
+                                                           @Param("start") LocalDate start,
+                                                           @Param("end") LocalDate end);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("""
+            select new com.diogo.finance.dto.TransactionColumnRow(t.id, t.date, t.amountMinor, t.type, t.category.id)
+            from Transaction t
+            where t.user.id = :userId
+            order by t.date, t.id
+            """)
+    Stream<TransactionColumnRow> streamColumnsByUserId(@Param("userId") Long userId);
+}
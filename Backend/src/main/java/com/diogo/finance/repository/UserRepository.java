@@ -2,9 +2,36 @@ package com.diogo.finance.repository;
 
 import com.diogo.finance.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
+    boolean existsByEmail(String email);
+
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // User.dataVersion não é atualizável pelo Hibernate: só é escrita por estes updates
+    @Modifying
+    @Query(value = "update users set data_version = data_version + 1 where id = :id", nativeQuery = true)
+    void incrementDataVersion(@Param("id") Long id);
+
+    // bloqueia as linhas por ordem de id, como as escritas com vários utilizadores
+    @Modifying
+    @Query(value = """
+            update users set data_version = data_version + 1
+            where id in (select id from users order by id for update)
+            """, nativeQuery = true)
+    void incrementAllDataVersions();
+
+    @Query(value = "select data_version from users where email = :email", nativeQuery = true)
+    Optional<Long> findDataVersionByEmail(@Param("email") String email);
+
+    @Query(value = "select data_version from users where id = :id", nativeQuery = true)
+    Optional<Long> findDataVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,236 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.BudgetRequest;
+import com.diogo.finance.dto.BudgetResponse;
+import com.diogo.finance.dto.BudgetSpend;
+import com.diogo.finance.event.BudgetAlertEvent;
+import com.diogo.finance.model.Budget;
+import com.diogo.finance.model.Money;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.repository.BudgetRepository;
+import com.diogo.finance.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Orçamentos mensais de despesa por categoria. O gasto de cada mês é um contador em
+ * budget_spend, atualizado na mesma transação das escritas (como os rollups) com um
+ * único upsert: cada escrita custa O(1) e não volta a somar as transações do mês.
+ * Quando o gasto passa um limiar de budget.alert-thresholds é publicado BudgetAlertEvent.
+ * Uma passagem periódica (reconcile) recalcula os contadores dos meses recentes a
+ * partir das transações e corrige desvios.
+ */
+@Slf4j
+@Service
+public class BudgetService {
+
+    private static final short EXPENSE = TransactionType.EXPENSE.getCode();
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${budget.reconcile.months:2}")
+    private int reconcileMonths;
+
+    private final int[] thresholds; // percentagens, por ordem decrescente
+
+    public BudgetService(@Value("${budget.alert-thresholds:80,100}") int[] thresholds) {
+        this.thresholds = Arrays.stream(thresholds).filter(t -> t > 0).boxed()
+                .sorted((a, b) -> b - a).mapToInt(Integer::intValue).toArray();
+    }
+
+    // chamados depois de RollupService.add/remove: uma linha nova de budget_spend começa no rollup do mês
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        if (transaction.getUser() == null || transaction.getCategory() == null) {
+            return;
+        }
+        long amount = transaction.getAmountMinor() != null ? transaction.getAmountMinor() : 0;
+        apply(transaction.getUser().getId(), transaction.getDate(), transaction.getType(),
+                transaction.getCategory().getId(), sign * amount);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long userId, LocalDate date, TransactionType type, Long categoryId, long delta) {
+        if (type != TransactionType.EXPENSE || date == null || categoryId == null) {
+            return;
+        }
+        for (BudgetSpend spend : budgetRepository.addSpend(userId, categoryId, date.withDayOfMonth(1), EXPENSE, delta)) {
+            checkAlert(userId, spend);
+        }
+    }
+
+    // o limiar só muda quando o gasto atravessa um limite, pelo que o update é raro
+    private void checkAlert(Long userId, BudgetSpend spend) {
+        int reached = reachedThreshold(spend.getSpentMinor(), spend.getLimitMinor());
+        int alerted = spend.getAlertedPercent();
+        if (reached == alerted) {
+            return;
+        }
+        // ao descer abaixo de um limiar, volta a alertar se o gasto o passar de novo
+        budgetRepository.updateAlertedPercent(spend.getBudgetId(), spend.getMonth(), reached);
+        if (reached > alerted) {
+            meterRegistry.counter("finance.budget.alerts", "threshold", String.valueOf(reached)).increment();
+            eventPublisher.publishEvent(new BudgetAlertEvent(userId, spend.getBudgetId(), spend.getCategoryId(),
+                    spend.getMonth(), reached, Money.toDouble(spend.getLimitMinor()),
+                    Money.toDouble(spend.getSpentMinor())));
+        }
+    }
+
+    private int reachedThreshold(long spent, long limit) {
+        for (int threshold : thresholds) {
+            if (spent * 100 >= threshold * limit) {
+                return threshold;
+            }
+        }
+        return 0;
+    }
+
+    public List<BudgetResponse> getBudgets(String email, YearMonth month) {
+        LocalDate bucket = (month != null ? month : YearMonth.now()).atDay(1);
+        return budgetRepository.findSpend(userId(email), bucket, EXPENSE).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Transactional
+    public BudgetResponse addBudget(String email, BudgetRequest request) {
+        Long userId = userId(email);
+        Long categoryId = request.getCategoryId();
+        if (categoryId == null || !categorySnapshot.get().contains(categoryId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Category not found");
+        }
+        if (budgetRepository.existsByUserIdAndCategoryId(userId, categoryId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A budget for this category already exists");
+        }
+        Budget budget = new Budget();
+        budget.setUserId(userId);
+        budget.setCategoryId(categoryId);
+        budget.setLimitMinor(validLimit(request));
+        return refresh(budgetRepository.saveAndFlush(budget));
+    }
+
+    @Transactional
+    public BudgetResponse updateBudget(String email, Long id, BudgetRequest request) {
+        Budget budget = budgetRepository.findByIdAndUserId(id, userId(email))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget not found"));
+        budget.setLimitMinor(validLimit(request));
+        return refresh(budgetRepository.saveAndFlush(budget));
+    }
+
+    @Transactional
+    public void deleteBudget(String email, Long id) {
+        Budget budget = budgetRepository.findByIdAndUserId(id, userId(email))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget not found"));
+        budgetRepository.delete(budget);
+    }
+
+    // um limite novo pode já estar ultrapassado: avalia o mês corrente sem alterar o gasto
+    private BudgetResponse refresh(Budget budget) {
+        LocalDate month = YearMonth.now().atDay(1);
+        BudgetSpend spend = budgetRepository.addSpend(budget.getUserId(), budget.getCategoryId(), month, EXPENSE, 0)
+                .get(0);
+        checkAlert(budget.getUserId(), spend);
+        return toResponse(spend);
+    }
+
+    private static long validLimit(BudgetRequest request) {
+        Double limit = request.getLimit();
+        if (limit == null || limit.isNaN() || limit.isInfinite() || limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be a positive amount");
+        }
+        return Money.toMinor(limit);
+    }
+
+    private Long userId(String email) {
+        return userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private BudgetResponse toResponse(BudgetSpend spend) {
+        long remaining = spend.getLimitMinor() - spend.getSpentMinor();
+        return new BudgetResponse(spend.getBudgetId(), spend.getCategoryId(),
+                categorySnapshot.get().name(spend.getCategoryId()), spend.getMonth(),
+                Money.toDouble(spend.getLimitMinor()), Money.toDouble(spend.getSpentMinor()),
+                Money.toDouble(remaining), spend.getAlertedPercent());
+    }
+
+    /**
+     * Recalcula, a partir das transações, o gasto dos últimos budget.reconcile.months meses
+     * de cada utilizador com orçamentos, uma transação por utilizador. Devolve o número de
+     * contadores corrigidos.
+     */
+    @Scheduled(fixedDelayString = "${budget.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        LocalDate since = reconcileSince();
+        int corrected = 0;
+        for (Long userId : budgetRepository.findUserIdsWithBudgets()) {
+            corrected += reconcile(userId, since);
+        }
+        return corrected;
+    }
+
+    // o mesmo, só para os orçamentos do utilizador autenticado
+    public int reconcile(String email) {
+        return reconcile(userId(email), reconcileSince());
+    }
+
+    private int reconcile(Long userId, LocalDate since) {
+        Integer fixed = transactionTemplate.execute(status -> {
+            budgetRepository.lockSpend(userId, since);
+            return budgetRepository.reconcileSpend(userId, since, EXPENSE);
+        });
+        if (fixed == null || fixed == 0) {
+            return 0;
+        }
+        log.warn("Budget drift for user {}: corrected {} monthly counter(s)", userId, fixed);
+        meterRegistry.counter("finance.budget.reconciled").increment(fixed);
+        return fixed;
+    }
+
+    private LocalDate reconcileSince() {
+        return YearMonth.now().minusMonths(Math.max(0, reconcileMonths - 1)).atDay(1);
+    }
+}
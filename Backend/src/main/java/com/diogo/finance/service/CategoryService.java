@@ -0,0 +1,139 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.CategoryRequest;
+import com.diogo.finance.dto.CategoryResponse;
+import com.diogo.finance.event.CategoryChangedEvent;
+import com.diogo.finance.model.Category;
+import com.diogo.finance.repository.BudgetRepository;
+import com.diogo.finance.repository.CategoryRepository;
+import com.diogo.finance.repository.RecurringRuleRepository;
+import com.diogo.finance.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gestão das categorias. Cada escrita publica CategoryChangedEvent, que substitui o
+ * CategorySnapshot e invalida os resumos em cache (têm os nomes das categorias).
+ */
+@Service
+public class CategoryService {
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private RecurringRuleRepository recurringRuleRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public List<CategoryResponse> getCategories() {
+        return categorySnapshot.get().namesById().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new CategoryResponse(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    public CategoryResponse getCategory(Long id) {
+        CategorySnapshot.Snapshot snapshot = categorySnapshot.get();
+        if (!snapshot.contains(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+        }
+        return new CategoryResponse(id, snapshot.name(id));
+    }
+
+    @Transactional
+    public CategoryResponse addCategory(CategoryRequest request) {
+        return addCategories(List.of(request)).get(0);
+    }
+
+    // tudo ou nada: um nome inválido ou repetido rejeita o pedido inteiro
+    @Transactional
+    public List<CategoryResponse> addCategories(List<CategoryRequest> requests) {
+        CategorySnapshot.Snapshot snapshot = categorySnapshot.get();
+        Set<String> seen = new HashSet<>();
+        List<Category> categories = new ArrayList<>();
+        for (CategoryRequest request : requests) {
+            String name = validName(request);
+            if (snapshot.idOf(name) != null || !seen.add(name.toLowerCase(Locale.ROOT))) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Category already exists: " + name);
+            }
+            categories.add(new Category(null, name));
+        }
+
+        List<CategoryResponse> created = categoryRepository.saveAll(categories).stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .map(category -> new CategoryResponse(category.getId(), category.getName()))
+                .toList();
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new CategoryChangedEvent());
+        }
+        return created;
+    }
+
+    @Transactional
+    public CategoryResponse updateCategory(Long id, CategoryRequest request) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+        String name = validName(request);
+        Long existing = categorySnapshot.get().idOf(name);
+        if (existing != null && !existing.equals(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Category already exists: " + name);
+        }
+
+        category.setName(name);
+        eventPublisher.publishEvent(new CategoryChangedEvent());
+        return new CategoryResponse(category.getId(), category.getName());
+    }
+
+    @Transactional
+    public void deleteCategory(Long id) {
+        if (!categoryRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+        }
+        if (transactionRepository.existsByCategoryId(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Category is used by transactions");
+        }
+        if (budgetRepository.existsByCategoryId(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Category is used by budgets");
+        }
+        if (recurringRuleRepository.existsByCategoryId(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Category is used by recurring transactions");
+        }
+        categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent());
+    }
+
+    private static String validName(CategoryRequest request) {
+        String name = request != null && request.getName() != null ? request.getName().trim() : "";
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Category name must have between 1 and " + MAX_NAME_LENGTH + " characters");
+        }
+        return name;
+    }
+}
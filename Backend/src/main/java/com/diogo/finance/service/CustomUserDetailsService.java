@@ -1,26 +1,69 @@
 package com.diogo.finance.service;
 
+import com.diogo.finance.dto.CacheStatsResponse;
 import com.diogo.finance.model.User;
 import com.diogo.finance.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final List<SimpleGrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
     @Autowired
     private UserRepository userRepository;
 
+    // TTL curto: evita ir à tabela users em cada pedido autenticado. Guarda só os dados, não o
+    // UserDetails: o ProviderManager apaga a password do objeto devolvido depois do login
+    private final Cache<String, Credentials> cache;
+
+    @Value("${auth.admin-emails:}")
+    private Set<String> adminEmails;
+
+    public CustomUserDetailsService(@Value("${auth.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${auth.user-cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Credentials credentials = cache.getIfPresent(email);
+        if (credentials == null) {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            credentials = new Credentials(user.getEmail(), user.getPassword());
+            cache.put(email, credentials);
+        }
 
+        // uma instância nova em cada chamada
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                java.util.Collections.emptyList()
+                credentials.email(),
+                credentials.passwordHash(),
+                adminEmails.contains(credentials.email()) ? ADMIN : List.of()
         );
     }
-}
\ No newline at end of file
+
+    public CacheStatsResponse cacheStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse("user-details", cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    private record Credentials(String email, String passwordHash) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Versão dos dados de cada utilizador (users.data_version), incrementada na transação de
+ * cada escrita de transações. As listagens e os resumos derivam dela as ETags: quando o
+ * cliente já tem a versão atual responde-se 304 depois desta única leitura, sem correr
+ * as queries da resposta nem a serializar.
+ */
+@Service
+public class DataVersionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    // o update bloqueia a linha do utilizador até ao commit: as escritas do mesmo utilizador ficam em série
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(Long userId) {
+        userRepository.incrementDataVersion(userId);
+    }
+
+    // para alterações que tocam em todos os utilizadores (ex.: reconstrução dos rollups)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpAll() {
+        userRepository.incrementAllDataVersions();
+    }
+
+    public String etagByEmail(String email, Object... params) {
+        return etag(userRepository.findDataVersionByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found")), params);
+    }
+
+    public String etagById(Long userId, Object... params) {
+        return etag(userRepository.findDataVersionById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found")), params);
+    }
+
+    // as respostas levam os nomes das categorias, pelo que a versão do snapshot também conta
+    private String etag(long version, Object... params) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Integer.toString(categorySnapshot.get().version()).getBytes(StandardCharsets.UTF_8));
+            for (Object param : params) {
+                digest.update((byte) 0);
+                digest.update(Objects.toString(param).getBytes(StandardCharsets.UTF_8));
+            }
+            String hash = HexFormat.of().formatHex(digest.digest(), 0, 8);
+            return "W/\"" + version + "-" + hash + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.CacheStatsResponse;
+import com.diogo.finance.model.IdempotencyRecord;
+import com.diogo.finance.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicação de escritas com Idempotency-Key. A primeira execução reserva a chave,
+ * executa a escrita e guarda a resposta na mesma transação: ou fica tudo gravado ou
+ * nada. Repetições com a mesma chave devolvem a resposta guardada sem voltar a escrever,
+ * primeiro a partir da cache em memória e depois da tabela idempotency_key.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 128;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Cache<IdempotencyRecord.Key, Stored> cache;
+    private final Duration ttl;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdempotencyService(@Value("${idempotency.cache.max-size:10000}") long maxSize,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              PlatformTransactionManager transactionManager) {
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executa a escrita uma única vez por chave. Sem chave, executa sempre.
+     * A mesma chave com um pedido diferente dá 422.
+     */
+    public <T> T execute(String key, String operation, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(currentScope(), key);
+        String hash = fingerprint(operation, request);
+
+        Stored cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, hash, responseType);
+        }
+
+        Outcome<T> outcome = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            if (idempotencyRepository.claim(id.getScope(), key, hash, now, now.plus(ttl)) == 0) {
+                IdempotencyRecord existing = idempotencyRepository.find(id.getScope(), key)
+                        .filter(record -> record.getResponse() != null)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                                "A request with this Idempotency-Key is still in progress"));
+                return new Outcome<T>(new Stored(existing.getRequestHash(), existing.getResponse()), null);
+            }
+            T response = action.get();
+            String json = toJson(response);
+            idempotencyRepository.complete(id.getScope(), key, json);
+            return new Outcome<>(new Stored(hash, json), response);
+        });
+
+        // dentro de uma transação maior (ex.: group commit) só fica em memória depois do commit
+        afterCommit(() -> cache.put(id, outcome.stored()));
+        if (outcome.response() != null) {
+            count("executed");
+            return outcome.response();
+        }
+        return replay(outcome.stored(), hash, responseType);
+    }
+
+    private <T> T replay(Stored stored, String hash, Class<T> responseType) {
+        if (!stored.requestHash().equals(hash)) {
+            count("mismatch");
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        count("replayed");
+        try {
+            return objectMapper.readValue(stored.response(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String currentScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("finance.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Integer removed = transactionTemplate.execute(status -> idempotencyRepository.deleteExpired(Instant.now()));
+        if (removed != null && removed > 0) {
+            log.info("Removed {} expired idempotency keys", removed);
+        }
+    }
+
+    public CacheStatsResponse cacheStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse("idempotency", cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    private record Stored(String requestHash, String response) {
+    }
+
+    private record Outcome<T>(Stored stored, T response) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.BatchRowError;
+import com.diogo.finance.dto.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de uma importação em curso. Atualizado pela thread de importação e lido
+ * pelo endpoint de estado.
+ */
+class ImportJob {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final String id;
+    private final String fileName;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<BatchRowError> errors = new ArrayList<>();
+    private volatile String status = "QUEUED";
+    private volatile String message;
+    private volatile Instant finishedAt;
+
+    ImportJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void running() {
+        status = "RUNNING";
+    }
+
+    void completed() {
+        status = "COMPLETED";
+        finishedAt = Instant.now();
+    }
+
+    void failed(String reason) {
+        status = "FAILED";
+        message = reason;
+        finishedAt = Instant.now();
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void inserted(long count) {
+        inserted.addAndGet(count);
+    }
+
+    void rowFailed(long index, String error) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BatchRowError((int) index, error));
+            }
+        }
+    }
+
+    ImportJobStatus toStatus() {
+        List<BatchRowError> snapshot;
+        synchronized (errors) {
+            snapshot = List.copyOf(errors);
+        }
+        return new ImportJobStatus(id, status, fileName, rowsRead.get(), inserted.get(), failed.get(),
+                snapshot, message, createdAt, finishedAt);
+    }
+}
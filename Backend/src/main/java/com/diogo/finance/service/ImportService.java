@@ -0,0 +1,183 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.BatchRowError;
+import com.diogo.finance.dto.ImportJobStatus;
+import com.diogo.finance.dto.TransactionRequest;
+import com.diogo.finance.model.User;
+import com.diogo.finance.repository.UserRepository;
+import com.diogo.finance.service.statement.CsvStatementReader;
+import com.diogo.finance.service.statement.OfxStatementReader;
+import com.diogo.finance.service.statement.StatementReader;
+import com.diogo.finance.service.statement.StatementRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importação de extratos CSV/OFX. O upload é copiado para um ficheiro temporário e
+ * processado em segundo plano: o ficheiro é lido linha a linha e gravado em blocos
+ * de import.chunk-size, cada um na sua transação. Como a leitura só avança depois
+ * de o bloco anterior estar gravado, a memória usada não depende do tamanho do ficheiro.
+ */
+@Slf4j
+@Service
+public class ImportService {
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${import.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${import.retention:1h}")
+    private Duration retention;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ImportService(@Value("${import.workers:2}") int workers,
+                         @Value("${import.queue-capacity:10}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("import-"));
+    }
+
+    public ImportJobStatus start(MultipartFile file, String email, String format, Long defaultCategoryId)
+            throws IOException {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean ofx = isOfx(format, file.getOriginalFilename());
+
+        Path temp = Files.createTempFile("statement-", ofx ? ".ofx" : ".csv");
+        file.transferTo(temp);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, user, temp, ofx, defaultCategoryId));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(temp);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports in progress");
+        }
+        return job.toStatus();
+    }
+
+    public ImportJobStatus getStatus(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found");
+        }
+        return job.toStatus();
+    }
+
+    private void run(ImportJob job, User user, Path file, boolean ofx, Long defaultCategoryId) {
+        job.running();
+        CategorySnapshot.Snapshot categories = categorySnapshot.get();
+
+        try (StatementReader reader = ofx
+                ? new OfxStatementReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), defaultCategoryId)
+                : new CsvStatementReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), defaultCategoryId)) {
+
+            List<TransactionRequest> chunk = new ArrayList<>(chunkSize);
+            List<Long> rowNumbers = new ArrayList<>(chunkSize);
+            long rowNumber = 0;
+            StatementRow row;
+
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                if (row.error() != null) {
+                    job.rowFailed(rowNumber, row.error());
+                } else {
+                    chunk.add(row.request());
+                    rowNumbers.add(rowNumber);
+                }
+                rowNumber++;
+
+                if (chunk.size() == chunkSize) {
+                    writeChunk(job, user, categories, chunk, rowNumbers);
+                }
+            }
+            writeChunk(job, user, categories, chunk, rowNumbers);
+            job.completed();
+        } catch (Exception e) {
+            log.warn("Import {} failed", job.getId(), e);
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete {}", file, e);
+            }
+        }
+    }
+
+    private void writeChunk(ImportJob job, User user, CategorySnapshot.Snapshot categories,
+                            List<TransactionRequest> chunk, List<Long> rowNumbers) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<BatchRowError> errors = new ArrayList<>();
+        Integer inserted = transactionTemplate.execute(status ->
+                transactionBatchService.insert(user, chunk, categories, 0, errors));
+
+        job.inserted(inserted != null ? inserted : 0);
+        for (BatchRowError error : errors) {
+            job.rowFailed(rowNumbers.get(error.getIndex()), error.getMessage());
+        }
+        chunk.clear();
+        rowNumbers.clear();
+    }
+
+    private static boolean isOfx(String format, String fileName) {
+        if (format != null) {
+            return format.equalsIgnoreCase("ofx");
+        }
+        return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".ofx");
+    }
+
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,161 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.LiveUpdateMessage;
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.event.BudgetAlertEvent;
+import com.diogo.finance.event.TransactionChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal SSE por utilizador. Depois de cada commit que altera transações, envia a
+ * cada subscrição a linha alterada e o resumo atualizado do intervalo que ela
+ * subscreveu, para o cliente atualizar no sítio em vez de voltar a pedir tudo.
+ * Os alertas de orçamento (BudgetAlertEvent) seguem pelo mesmo canal.
+ * Os envios correm num executor próprio para não atrasar a thread que fez o commit.
+ */
+@Slf4j
+@Service
+public class LiveUpdateService {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Value("${live.sse.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${live.max-subscriptions-per-user:5}")
+    private int maxSubscriptionsPerUser;
+
+    private final Map<Long, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public LiveUpdateService(@Value("${live.workers:2}") int workers,
+                             @Value("${live.queue-capacity:1000}") int queueCapacity) {
+        // com a fila cheia o evento é descartado: o cliente volta a sincronizar no evento seguinte
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("live-"),
+                (task, pool) -> log.warn("Live update queue is full, dropping event"));
+    }
+
+    /**
+     * Abre uma subscrição. Com start e end, cada mensagem leva o resumo desse intervalo.
+     */
+    public SseEmitter subscribe(Long userId, LocalDate start, LocalDate end) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(userId, emitter, start, end);
+
+        List<Subscription> userSubscriptions = subscriptions.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        userSubscriptions.add(subscription);
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+
+        // limita ligações esquecidas (separadores antigos) fechando as mais antigas
+        while (userSubscriptions.size() > maxSubscriptionsPerUser) {
+            Subscription oldest = userSubscriptions.get(0);
+            remove(oldest);
+            oldest.emitter().complete();
+        }
+
+        try {
+            emitter.send(SseEmitter.event().name("ready").data("ok"));
+        } catch (IOException e) {
+            remove(subscription);
+        }
+        return emitter;
+    }
+
+    // corre depois da invalidação da SummaryCache, para o resumo enviado já incluir a alteração
+    @Order(100)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        List<Subscription> userSubscriptions = subscriptions.get(event.getUserId());
+        if (userSubscriptions == null || userSubscriptions.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> broadcast(event, List.copyOf(userSubscriptions)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetAlert(BudgetAlertEvent event) {
+        List<Subscription> userSubscriptions = subscriptions.get(event.getUserId());
+        if (userSubscriptions == null || userSubscriptions.isEmpty()) {
+            return;
+        }
+        List<Subscription> targets = List.copyOf(userSubscriptions);
+        executor.execute(() -> targets.forEach(subscription -> send(subscription,
+                SseEmitter.event().name("budget-alert").data(event, MediaType.APPLICATION_JSON))));
+    }
+
+    private void broadcast(TransactionChangedEvent event, List<Subscription> targets) {
+        // subscrições com o mesmo intervalo (vários separadores no mesmo mês) partilham o resumo
+        Map<List<LocalDate>, SummaryResponse> summaries = new HashMap<>();
+        for (Subscription subscription : targets) {
+            SummaryResponse summary = null;
+            if (subscription.start() != null && subscription.end() != null) {
+                summary = summaries.computeIfAbsent(List.of(subscription.start(), subscription.end()),
+                        range -> transactionService.getSummary(event.getUserId(), range.get(0), range.get(1)));
+            }
+            LiveUpdateMessage message = new LiveUpdateMessage(event.getKind().name(), event.getTransaction(),
+                    event.getPrevious(), summary);
+            send(subscription, SseEmitter.event().name("transaction").data(message, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // mantém a ligação viva através de proxies e deteta clientes que desapareceram
+    @Scheduled(fixedDelayString = "${live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscriptions.values().forEach(list -> list.forEach(s -> send(s, SseEmitter.event().comment("ping"))));
+    }
+
+    public int activeSubscriptions() {
+        return subscriptions.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter().send(event);
+        } catch (IOException | IllegalStateException e) {
+            remove(subscription);
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId(), (id, list) -> {
+            list.remove(subscription);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscriptions.values().forEach(list -> list.forEach(s -> s.emitter().complete()));
+        subscriptions.clear();
+    }
+
+    private record Subscription(Long userId, SseEmitter emitter, LocalDate start, LocalDate end) {
+    }
+}
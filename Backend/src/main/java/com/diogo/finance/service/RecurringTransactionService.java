@@ -0,0 +1,246 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.BatchRowError;
+import com.diogo.finance.dto.RecurringRuleRequest;
+import com.diogo.finance.dto.RecurringRuleResponse;
+import com.diogo.finance.dto.TransactionRequest;
+import com.diogo.finance.model.Money;
+import com.diogo.finance.model.RecurrenceFrequency;
+import com.diogo.finance.model.RecurringRule;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.model.User;
+import com.diogo.finance.repository.RecurringRuleRepository;
+import com.diogo.finance.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transações recorrentes (salários, subscrições). Cada regra guarda a data da próxima
+ * ocorrência por gravar; o índice parcial em next_date funciona como fila de prioridade,
+ * pelo que cada passagem só lê as regras vencidas, em blocos de recurring.batch-size,
+ * sem uma query por regra. As ocorrências de um bloco são gravadas com os inserts em
+ * lote do TransactionBatchService (rollups, orçamentos e eventos incluídos) e a regra
+ * avança na mesma transação: depois de uma paragem, a passagem seguinte grava as
+ * ocorrências em atraso exatamente uma vez, sempre com as mesmas datas.
+ */
+@Slf4j
+@Service
+public class RecurringTransactionService {
+
+    private static final int MAX_EVERY = 1000;
+
+    @Autowired
+    private RecurringRuleRepository recurringRuleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${recurring.batch-size:1000}")
+    private int batchSize;
+
+    // limita as linhas por bloco quando uma regra diária tem muitos dias em atraso; o resto segue no bloco seguinte
+    @Value("${recurring.max-occurrences-per-rule:31}")
+    private int maxOccurrencesPerRule;
+
+    @Scheduled(fixedDelayString = "${recurring.interval-ms:900000}")
+    public void materializeDue() {
+        materialize(LocalDate.now());
+    }
+
+    /**
+     * Grava todas as ocorrências com data até today, um bloco de regras por transação.
+     * Devolve o número de transações criadas.
+     */
+    public int materialize(LocalDate today) {
+        return materialize((Long) null, today);
+    }
+
+    // o mesmo, só com as regras do utilizador autenticado
+    public int materialize(String email, LocalDate today) {
+        return materialize(userId(email), today);
+    }
+
+    // userId null: regras de todos os utilizadores
+    private int materialize(Long userId, LocalDate today) {
+        int created = 0;
+        while (true) {
+            Integer inserted = transactionTemplate.execute(status -> materializeBatch(userId, today));
+            if (inserted == null) {
+                break;
+            }
+            created += inserted;
+        }
+        if (created > 0) {
+            log.info("Materialized {} recurring transaction(s) up to {}", created, today);
+            meterRegistry.counter("finance.recurring.materialized").increment(created);
+        }
+        return created;
+    }
+
+    // null quando já não há regras vencidas
+    private Integer materializeBatch(Long userId, LocalDate today) {
+        List<RecurringRule> rules = userId == null
+                ? recurringRuleRepository.lockDue(today, batchSize)
+                : recurringRuleRepository.lockDueByUserId(userId, today, batchSize);
+        if (rules.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, List<TransactionRequest>> rowsByUser = new LinkedHashMap<>();
+        for (RecurringRule rule : rules) {
+            long n = rule.getNextIndex();
+            LocalDate date = rule.getNextDate();
+            for (int count = 0; date != null && !date.isAfter(today) && count < maxOccurrencesPerRule; count++) {
+                rowsByUser.computeIfAbsent(rule.getUserId(), id -> new ArrayList<>()).add(occurrence(rule, date));
+                rule.setLastDate(date);
+                date = rule.occurrence(++n);
+            }
+            // as regras são gravadas no primeiro flush do insert
+            rule.moveTo(n);
+        }
+
+        Map<Long, User> users = userRepository.findAllById(rowsByUser.keySet()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        CategorySnapshot.Snapshot categories = categorySnapshot.get();
+        int inserted = 0;
+        for (Map.Entry<Long, List<TransactionRequest>> entry : rowsByUser.entrySet()) {
+            List<BatchRowError> errors = new ArrayList<>();
+            inserted += transactionBatchService.insert(users.get(entry.getKey()), entry.getValue(), categories, 0, errors);
+            if (!errors.isEmpty()) {
+                log.warn("Skipped {} recurring occurrence(s) for user {}: {}", errors.size(), entry.getKey(),
+                        errors.get(0).getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private static TransactionRequest occurrence(RecurringRule rule, LocalDate date) {
+        TransactionRequest row = new TransactionRequest();
+        row.setDescription(rule.getDescription());
+        row.setAmount(Money.toDouble(rule.getAmountMinor()));
+        row.setType(rule.getType().name());
+        row.setDate(date);
+        row.setCategoryId(rule.getCategoryId());
+        return row;
+    }
+
+    public List<RecurringRuleResponse> getRules(String email) {
+        return recurringRuleRepository.findByUserIdOrderById(userId(email)).stream()
+                .map(RecurringRuleResponse::new)
+                .toList();
+    }
+
+    // uma data de início no passado grava as ocorrências em atraso na passagem seguinte
+    @Transactional
+    public RecurringRuleResponse addRule(String email, RecurringRuleRequest request) {
+        RecurringRule rule = new RecurringRule();
+        rule.setUserId(userId(email));
+        apply(rule, request);
+        rule.moveTo(0);
+        return new RecurringRuleResponse(recurringRuleRepository.save(rule));
+    }
+
+    /**
+     * Altera a regra a partir da próxima ocorrência; as transações já gravadas ficam como estão.
+     */
+    @Transactional
+    public RecurringRuleResponse updateRule(String email, Long id, RecurringRuleRequest request) {
+        RecurringRule rule = recurringRuleRepository.findByIdAndUserId(id, userId(email))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Recurring rule not found"));
+        apply(rule, request);
+        // primeira ocorrência do novo calendário depois da última já gravada
+        long n = 0;
+        if (rule.getLastDate() != null) {
+            for (LocalDate date = rule.occurrence(0); date != null && !date.isAfter(rule.getLastDate());
+                 date = rule.occurrence(n)) {
+                n++;
+            }
+        }
+        rule.moveTo(n);
+        return new RecurringRuleResponse(recurringRuleRepository.save(rule));
+    }
+
+    @Transactional
+    public void deleteRule(String email, Long id) {
+        RecurringRule rule = recurringRuleRepository.findByIdAndUserId(id, userId(email))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Recurring rule not found"));
+        recurringRuleRepository.delete(rule);
+    }
+
+    private void apply(RecurringRule rule, RecurringRuleRequest request) {
+        RecurrenceFrequency frequency = parseFrequency(request.getFrequency());
+        Integer every = request.getEvery();
+        if (every == null || every < 1 || every > MAX_EVERY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "every must be between 1 and " + MAX_EVERY);
+        }
+        if (request.getStartDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing startDate");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate is before startDate");
+        }
+        // as ocorrências passam pelas mesmas validações que as linhas de um batch
+        TransactionRequest row = new TransactionRequest();
+        row.setAmount(request.getAmount());
+        row.setType(request.getType());
+        row.setDate(request.getStartDate());
+        row.setCategoryId(request.getCategoryId());
+        String error = TransactionBatchService.validate(row, categorySnapshot.get());
+        if (error != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+        }
+
+        rule.setDescription(request.getDescription());
+        rule.setAmountMinor(Money.toMinor(request.getAmount()));
+        rule.setType(TransactionType.parse(request.getType()));
+        rule.setCategoryId(request.getCategoryId());
+        rule.setFrequency(frequency);
+        rule.setEvery(every);
+        rule.setStartDate(request.getStartDate());
+        rule.setEndDate(request.getEndDate());
+    }
+
+    private static RecurrenceFrequency parseFrequency(String frequency) {
+        try {
+            return RecurrenceFrequency.valueOf(frequency.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "frequency must be DAILY, WEEKLY, MONTHLY or YEARLY");
+        }
+    }
+
+    private Long userId(String email) {
+        return userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
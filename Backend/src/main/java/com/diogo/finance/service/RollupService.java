@@ -0,0 +1,225 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.BucketTotal;
+import com.diogo.finance.dto.RollupDrift;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.event.TransactionChangedEvent;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.model.User;
+import com.diogo.finance.repository.RollupRepository;
+import com.diogo.finance.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mantém os totais diários e mensais por utilizador/tipo/categoria, atualizados
+ * na mesma transação das escritas em TransactionService, e responde aos resumos
+ * por intervalo lendo O(dias + meses) linhas em vez de O(transações).
+ */
+@Slf4j
+@Service
+public class RollupService {
+
+    // intervalo vazio para o BETWEEN (from > to)
+    private static final LocalDate EMPTY_FROM = LocalDate.of(9999, 12, 31);
+    private static final LocalDate EMPTY_TO = LocalDate.of(1, 1, 1);
+
+    @Autowired
+    private RollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${rollup.verify.repair:false}")
+    private boolean repairOnDrift;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        if (transaction.getUser() == null || transaction.getDate() == null) {
+            return;
+        }
+        long amount = transaction.getAmountMinor() != null ? transaction.getAmountMinor() : 0;
+        Long categoryId = transaction.getCategory() != null ? transaction.getCategory().getId() : null;
+        apply(transaction.getUser().getId(), transaction.getDate(), transaction.getType(), categoryId,
+                sign * amount, sign);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long userId, LocalDate date, TransactionType type, Long categoryId, long total, long count) {
+        Short typeCode = type != null ? type.getCode() : null;
+        rollupRepository.upsertDaily(userId, date, typeCode, categoryId, total, count);
+        rollupRepository.upsertMonthly(userId, date.withDayOfMonth(1), typeCode, categoryId, total, count);
+    }
+
+    public List<TypeCategoryTotal> summarize(Long userId, LocalDate start, LocalDate end) {
+        Segments s = Segments.of(start, end);
+        if (s == null) {
+            return List.of();
+        }
+        return rollupRepository.summarize(userId, s.monthFrom(), s.monthTo(), s.headFrom(), s.headTo(),
+                s.tailFrom(), s.tailTo());
+    }
+
+    public long summarizeBalance(Long userId, LocalDate start, LocalDate end) {
+        Segments s = Segments.of(start, end);
+        if (s == null) {
+            return 0;
+        }
+        return rollupRepository.summarizeBalance(userId, s.monthFrom(), s.monthTo(), s.headFrom(), s.headTo(),
+                s.tailFrom(), s.tailTo());
+    }
+
+    public List<TypeCategoryTotal> summarizeByType(Long userId, LocalDate start, LocalDate end) {
+        Segments s = Segments.of(start, end);
+        if (s == null) {
+            return List.of();
+        }
+        return rollupRepository.summarizeByType(userId, s.monthFrom(), s.monthTo(), s.headFrom(), s.headTo(),
+                s.tailFrom(), s.tailTo());
+    }
+
+    public List<TypeCategoryTotal> summarizeByCategory(Long userId, LocalDate start, LocalDate end) {
+        Segments s = Segments.of(start, end);
+        if (s == null) {
+            return List.of();
+        }
+        return rollupRepository.summarizeByCategory(userId, s.monthFrom(), s.monthTo(), s.headFrom(), s.headTo(),
+                s.tailFrom(), s.tailTo());
+    }
+
+    /**
+     * Totais por bucket no intervalo. Com {@code wholeMonths} lê monthly_rollup (um bucket
+     * por mês, start e end têm de ser limites de mês); caso contrário lê daily_rollup.
+     */
+    public List<BucketTotal> bucketTotals(Long userId, LocalDate start, LocalDate end, boolean wholeMonths) {
+        if (wholeMonths) {
+            return rollupRepository.findMonthlyTotals(userId, start.withDayOfMonth(1), end.withDayOfMonth(1));
+        }
+        return rollupRepository.findDailyTotals(userId, start, end);
+    }
+
+    /**
+     * Como numa escrita, a versão dos dados é incrementada primeiro (a reconstrução fica em série
+     * com as escritas do utilizador) e os resumos em cache são invalidados com um evento BULK.
+     */
+    public void rebuild(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            dataVersionService.bump(userId);
+            rollupRepository.deleteMonthly(userId);
+            rollupRepository.deleteDaily(userId);
+            rollupRepository.rebuildDaily(userId);
+            rollupRepository.rebuildMonthly(userId);
+            publishRebuilt(List.of(userId));
+        });
+    }
+
+    public void rebuildAll() {
+        transactionTemplate.executeWithoutResult(status -> {
+            dataVersionService.bumpAll();
+            Set<Long> userIds = new HashSet<>(rollupRepository.findUserIdsWithRollups());
+            rollupRepository.deleteAllMonthly();
+            rollupRepository.deleteAllDaily();
+            rollupRepository.rebuildAllDaily();
+            rollupRepository.rebuildAllMonthly();
+            userIds.addAll(rollupRepository.findUserIdsWithRollups());
+            publishRebuilt(userIds);
+        });
+    }
+
+    // os listeners correm depois do commit
+    private void publishRebuilt(Collection<Long> userIds) {
+        for (User user : userRepository.findAllById(userIds)) {
+            eventPublisher.publishEvent(new TransactionChangedEvent(user.getId(), user.getEmail()));
+        }
+    }
+
+    public List<RollupDrift> verify(Long userId) {
+        List<RollupDrift> drift = new ArrayList<>(rollupRepository.findDailyDrift(userId));
+        drift.addAll(rollupRepository.findMonthlyDrift(userId));
+        return drift;
+    }
+
+    @Scheduled(cron = "${rollup.verify.cron:0 30 3 * * *}")
+    public void verifyAll() {
+        for (Long userId : rollupRepository.findUserIdsWithTransactions()) {
+            List<RollupDrift> drift = verify(userId);
+            if (drift.isEmpty()) {
+                continue;
+            }
+            log.warn("Rollup drift for user {}: {} bucket(s) differ from raw transactions", userId, drift.size());
+            if (repairOnDrift) {
+                rebuild(userId);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.countDaily() == 0 && !rollupRepository.findUserIdsWithTransactions().isEmpty()) {
+            log.info("Rollup tables are empty, rebuilding from transactions");
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Divide [start, end] em meses completos (monthly_rollup) e pontas head/tail (daily_rollup).
+     */
+    private record Segments(LocalDate monthFrom, LocalDate monthTo, LocalDate headFrom, LocalDate headTo,
+                            LocalDate tailFrom, LocalDate tailTo) {
+
+        static Segments of(LocalDate start, LocalDate end) {
+            if (start.isAfter(end)) {
+                return null;
+            }
+
+            LocalDate firstFullMonth = start.getDayOfMonth() == 1 ? start : start.plusMonths(1).withDayOfMonth(1);
+            LocalDate lastFullDay = end.equals(end.with(TemporalAdjusters.lastDayOfMonth()))
+                    ? end
+                    : end.withDayOfMonth(1).minusDays(1);
+
+            if (firstFullMonth.isAfter(lastFullDay)) {
+                // sem meses completos: tudo sai de daily_rollup
+                return new Segments(EMPTY_FROM, EMPTY_TO, start, end, EMPTY_FROM, EMPTY_TO);
+            }
+            return new Segments(firstFullMonth, lastFullDay.withDayOfMonth(1),
+                    start, firstFullMonth.minusDays(1),
+                    lastFullDay.plusDays(1), end);
+        }
+    }
+}
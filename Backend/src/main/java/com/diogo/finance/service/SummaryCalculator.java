@@ -0,0 +1,76 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.model.Money;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Monta o SummaryResponse a partir das linhas agregadas (type, categoria, soma)
+ * devolvidas pela base de dados, sem carregar entidades Transaction. As somas são
+ * feitas em cêntimos (long) e só no fim convertidas para o Double da API.
+ */
+final class SummaryCalculator {
+
+    private SummaryCalculator() {
+    }
+
+    static SummaryResponse summarize(List<? extends TypeCategoryTotal> rows) {
+        Accumulator accumulator = new Accumulator();
+        for (TypeCategoryTotal row : rows) {
+            accumulator.add(row);
+        }
+        return accumulator.toResponse();
+    }
+
+    /**
+     * Acumula linhas de um único resumo; as séries usam um por ponto.
+     */
+    static final class Accumulator {
+        private long balance;
+        private final Map<String, long[]> byType = new HashMap<>();
+        private final Map<String, long[]> byCategory = new HashMap<>();
+
+        void add(TypeCategoryTotal row) {
+            long total = row.getTotal() != null ? row.getTotal() : 0;
+            balance += "INCOME".equalsIgnoreCase(row.getType()) ? total : -total;
+            if (row.getType() != null) {
+                byType.computeIfAbsent(row.getType(), k -> new long[1])[0] += total;
+            }
+            if (row.getCategoryName() != null) {
+                byCategory.computeIfAbsent(row.getCategoryName(), k -> new long[1])[0] += total;
+            }
+        }
+
+        // o resultado pode ficar em cache e ser partilhado entre pedidos
+        SummaryResponse toResponse() {
+            return new SummaryResponse(Money.toDouble(balance), toAmounts(byType), toAmounts(byCategory));
+        }
+    }
+
+    /**
+     * Totais das linhas agrupados pela chave (tipo ou categoria); chaves nulas são ignoradas.
+     */
+    static Map<String, Double> totalsBy(List<? extends TypeCategoryTotal> rows,
+                                        Function<TypeCategoryTotal, String> key) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (TypeCategoryTotal row : rows) {
+            String name = key.apply(row);
+            if (name != null) {
+                totals.computeIfAbsent(name, k -> new long[1])[0] += row.getTotal() != null ? row.getTotal() : 0;
+            }
+        }
+        return toAmounts(totals);
+    }
+
+    private static Map<String, Double> toAmounts(Map<String, long[]> totals) {
+        Map<String, Double> amounts = new HashMap<>(totals.size() * 2);
+        totals.forEach((key, total) -> amounts.put(key, Money.toDouble(total[0])));
+        return Collections.unmodifiableMap(amounts);
+    }
+}
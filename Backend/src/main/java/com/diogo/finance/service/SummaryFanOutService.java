@@ -0,0 +1,134 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.metrics.AggregationMetrics;
+import com.diogo.finance.metrics.JdbcRequestStats;
+import com.diogo.finance.model.Money;
+import com.diogo.finance.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Calcula as três partes de um resumo (saldo, totais por tipo e por categoria) em
+ * paralelo, cada uma com a sua query, num executor próprio e limitado. A latência
+ * passa a ser a da query mais lenta em vez da soma das três. Uma parte que não
+ * responde dentro de summary.parallel.timeout fica a null e o resumo sai com
+ * degraded=true (e não entra em cache).
+ */
+@Slf4j
+@Service
+public class SummaryFanOutService {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private AggregationMetrics aggregationMetrics;
+
+    @Value("${rollup.enabled:true}")
+    private boolean rollupsEnabled;
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnly;
+    private final long timeoutNanos;
+
+    public SummaryFanOutService(@Value("${summary.parallel.workers:8}") int workers,
+                                @Value("${summary.parallel.queue-capacity:100}") int queueCapacity,
+                                @Value("${summary.parallel.timeout:2s}") Duration timeout,
+                                PlatformTransactionManager transactionManager) {
+        // com a fila cheia a parte corre na thread do pedido: o resumo continua a sair, só que em série
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("summary-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.timeoutNanos = timeout.toNanos();
+
+        // o timeout da transação passa para as queries, pelo que a base de dados também desiste
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+    }
+
+    public SummaryResponse summarize(Long userId, LocalDate start, LocalDate end) {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        Future<Long> balance = submit(() -> rollupsEnabled
+                ? rollupService.summarizeBalance(userId, start, end)
+                : transactionRepository.sumBalance(userId, start, end));
+        Future<List<TypeCategoryTotal>> byType = submit(() -> rollupsEnabled
+                ? rollupService.summarizeByType(userId, start, end)
+                : transactionRepository.sumByType(userId, start, end));
+        Future<List<TypeCategoryTotal>> byCategory = submit(() -> rollupsEnabled
+                ? rollupService.summarizeByCategory(userId, start, end)
+                : transactionRepository.sumByCategory(userId, start, end));
+
+        Long balanceMinor = await(balance, deadline, "balance", userId);
+        List<TypeCategoryTotal> typeRows = await(byType, deadline, "totalsByType", userId);
+        List<TypeCategoryTotal> categoryRows = await(byCategory, deadline, "totalsByCategory", userId);
+        if (typeRows != null) {
+            aggregationMetrics.record("summary_by_type", rollupsEnabled, typeRows);
+        }
+        if (categoryRows != null) {
+            aggregationMetrics.record("summary_by_category", rollupsEnabled, categoryRows);
+        }
+
+        return new SummaryResponse(
+                balanceMinor != null ? Money.toDouble(balanceMinor) : null,
+                typeRows != null ? SummaryCalculator.totalsBy(typeRows, TypeCategoryTotal::getType) : null,
+                categoryRows != null ? SummaryCalculator.totalsBy(categoryRows, TypeCategoryTotal::getCategoryName) : null,
+                balanceMinor == null || typeRows == null || categoryRows == null);
+    }
+
+    private <T> Future<T> submit(Supplier<T> query) {
+        return executor.submit(JdbcRequestStats.wrap(() -> readOnly.execute(status -> query.get())));
+    }
+
+    private <T> T await(Future<T> future, long deadline, String part, Long userId) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Summary part {} timed out for user {}", part, userId);
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueryTimeoutException) {
+                log.warn("Summary part {} was cancelled by the database for user {}", part, userId);
+                return null;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,180 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.analytics.ColumnarStore;
+import com.diogo.finance.analytics.UserColumns;
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.BucketTotal;
+import com.diogo.finance.dto.SummaryGranularity;
+import com.diogo.finance.dto.SummaryPoint;
+import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.metrics.AggregationMetrics;
+import com.diogo.finance.dto.SummarySeriesResponse;
+import com.diogo.finance.repository.TransactionRepository;
+import com.diogo.finance.repository.UserRepository;
+import com.diogo.finance.util.DateRange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Resumos de vários intervalos (séries por dia/semana/mês/ano ou comparações
+ * arbitrárias) calculados com uma única query sobre o intervalo envolvente e uma
+ * passagem pelas linhas agregadas por dia (ou por mês, quando todos os intervalos
+ * são meses completos).
+ */
+@Service
+public class SummarySeriesService {
+
+    static final int MAX_POINTS = 1000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private AggregationMetrics aggregationMetrics;
+
+    @Autowired
+    private ColumnarStore columnarStore;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Value("${rollup.enabled:true}")
+    private boolean rollupsEnabled;
+
+    public SummarySeriesResponse getSeries(Long userId, LocalDate start, LocalDate end, SummaryGranularity granularity) {
+        if (end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "End is before start");
+        }
+        List<DateRange> buckets = new ArrayList<>();
+        for (LocalDate bucket = granularity.bucketStart(start); !bucket.isAfter(end); bucket = granularity.nextBucket(bucket)) {
+            if (buckets.size() == MAX_POINTS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Too many buckets, at most " + MAX_POINTS + " per request");
+            }
+            LocalDate last = granularity.nextBucket(bucket).minusDays(1);
+            // o primeiro e o último bucket são cortados ao intervalo pedido
+            buckets.add(new DateRange(bucket.isBefore(start) ? start : bucket, last.isAfter(end) ? end : last));
+        }
+        return new SummarySeriesResponse(granularity, summarize(userId, buckets));
+    }
+
+    public SummarySeriesResponse getRanges(Long userId, List<DateRange> ranges) {
+        if (ranges.isEmpty() || ranges.size() > MAX_POINTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_POINTS + " ranges are required");
+        }
+        return new SummarySeriesResponse(null, summarize(userId, ranges));
+    }
+
+    private List<SummaryPoint> summarize(Long userId, List<DateRange> ranges) {
+        if (columnarStore.isEnabled()) {
+            return summarizeColumns(userId, ranges);
+        }
+        LocalDate from = ranges.stream().map(DateRange::start).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = ranges.stream().map(DateRange::end).max(Comparator.naturalOrder()).orElseThrow();
+        boolean wholeMonths = ranges.stream().allMatch(DateRange::isWholeMonths);
+
+        List<BucketTotal> rows = rollupsEnabled
+                ? rollupService.bucketTotals(userId, from, to, wholeMonths)
+                : transactionRepository.sumByDateTypeAndCategory(userId, from, to);
+        aggregationMetrics.record("series", rollupsEnabled, rows);
+        if (rows.isEmpty() && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+
+        SummaryCalculator.Accumulator[] points = new SummaryCalculator.Accumulator[ranges.size()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new SummaryCalculator.Accumulator();
+        }
+        RangeIndex index = new RangeIndex(ranges);
+        for (BucketTotal row : rows) {
+            index.forEachContaining(row.getBucket(), i -> points[i].add(row));
+        }
+
+        List<SummaryPoint> result = new ArrayList<>(ranges.size());
+        for (int i = 0; i < points.length; i++) {
+            result.add(point(ranges.get(i), points[i].toResponse()));
+        }
+        return result;
+    }
+
+    // cada intervalo é um intervalo contíguo das colunas ordenadas por data
+    private List<SummaryPoint> summarizeColumns(Long userId, List<DateRange> ranges) {
+        UserColumns columns = columnarStore.columns(userId);
+        CategorySnapshot.Snapshot categories = categorySnapshot.get();
+        List<SummaryPoint> result = new ArrayList<>(ranges.size());
+        List<TypeCategoryTotal> allRows = new ArrayList<>();
+        for (DateRange range : ranges) {
+            List<TypeCategoryTotal> rows = columns.totals(range.start(), range.end(), categories::name);
+            allRows.addAll(rows);
+            result.add(point(range, SummaryCalculator.summarize(rows)));
+        }
+        aggregationMetrics.record("series", "columnar", allRows);
+        return result;
+    }
+
+    private static SummaryPoint point(DateRange range, SummaryResponse summary) {
+        return new SummaryPoint(range.start(), range.end(), summary.getBalance(),
+                summary.getTotalsByType(), summary.getTotalsByCategory());
+    }
+
+    /**
+     * Encontra os intervalos que contêm uma data. Séries (intervalos ordenados e
+     * disjuntos) usam pesquisa binária; comparações arbitrárias, que são poucas,
+     * percorrem a lista.
+     */
+    private static final class RangeIndex {
+        private final List<DateRange> ranges;
+        private final boolean disjointSorted;
+
+        RangeIndex(List<DateRange> ranges) {
+            this.ranges = ranges;
+            boolean sorted = true;
+            for (int i = 1; i < ranges.size() && sorted; i++) {
+                sorted = ranges.get(i).start().isAfter(ranges.get(i - 1).end());
+            }
+            this.disjointSorted = sorted;
+        }
+
+        void forEachContaining(LocalDate date, IntConsumer action) {
+            if (!disjointSorted) {
+                for (int i = 0; i < ranges.size(); i++) {
+                    if (ranges.get(i).contains(date)) {
+                        action.accept(i);
+                    }
+                }
+                return;
+            }
+            int low = 0;
+            int high = ranges.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                DateRange range = ranges.get(mid);
+                if (date.isBefore(range.start())) {
+                    high = mid - 1;
+                } else if (date.isAfter(range.end())) {
+                    low = mid + 1;
+                } else {
+                    action.accept(mid);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.dto.BatchRowError;
+import com.diogo.finance.dto.TransactionBatchRequest;
+import com.diogo.finance.dto.TransactionBatchResponse;
+import com.diogo.finance.dto.TransactionRequest;
+import com.diogo.finance.event.TransactionChangedEvent;
+import com.diogo.finance.model.Category;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.model.User;
+import com.diogo.finance.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserção em massa de transações: o utilizador é resolvido uma única vez e as
+ * categorias vêm do CategorySnapshot. As linhas inválidas são reportadas
+ * individualmente e as válidas são gravadas com JDBC batching
+ * (hibernate.jdbc.batch_size), limpando o contexto de persistência a cada lote
+ * para manter a memória constante.
+ */
+@Service
+public class TransactionBatchService {
+
+    // acima disto o valor em cêntimos deixa de ser representável sem perda a partir de um double
+    private static final double MAX_AMOUNT = 1e13;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${transaction.batch.max-rows:50000}")
+    private int maxRows;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int flushEvery;
+
+    @Transactional
+    public TransactionBatchResponse addTransactions(TransactionBatchRequest request) {
+        List<TransactionRequest> rows = request.getTransactions() != null ? request.getTransactions() : List.of();
+        if (rows.size() > maxRows) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch exceeds " + maxRows + " transactions");
+        }
+
+        User user = userRepository.findByEmail(request.getEmail())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        List<BatchRowError> errors = new ArrayList<>();
+        int inserted = insert(user, rows, categorySnapshot.get(), 0, errors);
+
+        return new TransactionBatchResponse(rows.size(), inserted, errors);
+    }
+
+    /**
+     * Grava as linhas válidas de {@code rows} para o utilizador dado. Os erros são
+     * acrescentados a {@code errors} com o índice deslocado por {@code firstIndex}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int insert(User user, List<TransactionRequest> rows, CategorySnapshot.Snapshot categories,
+                      int firstIndex, List<BatchRowError> errors) {
+        if (!rows.isEmpty()) {
+            dataVersionService.bump(user.getId());
+        }
+        Map<RollupKey, long[]> deltas = new HashMap<>();
+        int inserted = 0;
+
+        for (int i = 0; i < rows.size(); i++) {
+            TransactionRequest row = rows.get(i);
+            String error = validate(row, categories);
+            if (error != null) {
+                errors.add(new BatchRowError(firstIndex + i, error));
+                continue;
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setUser(user);
+            transaction.setCategory(entityManager.getReference(Category.class, row.getCategoryId()));
+            transaction.setAmount(row.getAmount());
+            transaction.setDate(row.getDate());
+            transaction.setDescription(row.getDescription());
+            transaction.setType(TransactionType.parse(row.getType()));
+            entityManager.persist(transaction);
+
+            long[] delta = deltas.computeIfAbsent(
+                    new RollupKey(row.getDate(), transaction.getType(), row.getCategoryId()), k -> new long[2]);
+            delta[0] += transaction.getAmountMinor();
+            delta[1]++;
+
+            if (++inserted % flushEvery == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        deltas.forEach((key, delta) -> {
+            rollupService.apply(user.getId(), key.date(), key.type(), key.categoryId(), delta[0], delta[1]);
+            budgetService.apply(user.getId(), key.date(), key.type(), key.categoryId(), delta[0]);
+        });
+        if (inserted > 0) {
+            eventPublisher.publishEvent(new TransactionChangedEvent(user.getId(), user.getEmail()));
+        }
+        return inserted;
+    }
+
+    static String validate(TransactionRequest row, CategorySnapshot.Snapshot categories) {
+        if (row == null) {
+            return "Empty row";
+        }
+        if (row.getAmount() == null || row.getAmount().isNaN() || row.getAmount().isInfinite()) {
+            return "Invalid amount";
+        }
+        if (Math.abs(row.getAmount()) >= MAX_AMOUNT) {
+            return "Amount out of range";
+        }
+        if (row.getDate() == null) {
+            return "Missing date";
+        }
+        if (TransactionType.parse(row.getType()) == null) {
+            return "Type must be INCOME or EXPENSE";
+        }
+        if (row.getCategoryId() == null || !categories.contains(row.getCategoryId())) {
+            return "Category not found";
+        }
+        return null;
+    }
+
+    private record RollupKey(LocalDate date, TransactionType type, Long categoryId) {
+    }
+}
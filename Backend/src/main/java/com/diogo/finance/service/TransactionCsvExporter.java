@@ -0,0 +1,84 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.model.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta o histórico de um utilizador em CSV diretamente a partir do cursor da
+ * base de dados (TransactionService.streamTransactions), sem materializar listas.
+ */
+@Service
+public class TransactionCsvExporter {
+
+    private static final String HEADER = "id,date,description,amount,type,categoryId,categoryName";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    public void export(Long userId, LocalDate start, LocalDate end, OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        writer.write(HEADER);
+        writer.write('\n');
+        try {
+            transactionService.streamTransactions(userId, start, end, t -> writeRow(writer, t));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+    }
+
+    private static void writeRow(Writer writer, TransactionResponse t) {
+        try {
+            writer.write(String.valueOf(t.getId()));
+            writer.write(',');
+            writer.write(t.getDate() != null ? t.getDate().toString() : "");
+            writer.write(',');
+            writer.write(escape(t.getDescription()));
+            writer.write(',');
+            writer.write(t.getAmount() != null ? formatAmount(t.getAmount()) : "");
+            writer.write(',');
+            writer.write(escape(t.getType()));
+            writer.write(',');
+            writer.write(t.getCategoryId() != null ? t.getCategoryId().toString() : "");
+            writer.write(',');
+            writer.write(escape(t.getCategoryName()));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // sempre com duas casas e sem notação científica (Double.toString dá 1.0E7 e 12.5), para voltar a importar
+    private static String formatAmount(Double amount) {
+        return BigDecimal.valueOf(Money.toMinor(amount), 2).toPlainString();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,31 +1,57 @@
 package com.diogo.finance.service;
 
+import com.diogo.finance.analytics.ColumnarStore;
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.cache.SummaryCache;
 import com.diogo.finance.dto.SummaryResponse;
+import com.diogo.finance.dto.TransactionPage;
 import com.diogo.finance.dto.TransactionRequest;
 import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.dto.TransactionSearchCriteria;
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.event.TransactionChangedEvent;
+import com.diogo.finance.metrics.AggregationMetrics;
 import com.diogo.finance.model.Category;
+import com.diogo.finance.model.Money;
 import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
 import com.diogo.finance.model.User;
 import com.diogo.finance.repository.CategoryRepository;
 import com.diogo.finance.repository.TransactionRepository;
 import com.diogo.finance.repository.UserRepository;
+import com.diogo.finance.util.PageCursor;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "finance.transaction.service", histogram = true)
 public class TransactionService {
 
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
@@ -35,15 +61,47 @@ public class TransactionService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private SummaryCache summaryCache;
+
+    @Autowired
+    private SummaryFanOutService summaryFanOutService;
+
+    @Autowired
+    private ColumnarStore columnarStore;
+
+    @Autowired
+    private AggregationMetrics aggregationMetrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${rollup.enabled:true}")
+    private boolean rollupsEnabled;
+
+    @Value("${summary.parallel.enabled:true}")
+    private boolean parallelSummaries;
+
+    @Transactional
     public TransactionResponse addTransaction(TransactionRequest request) {
-        System.out.println("➡️ Categorias disponíveis:");
-        categoryRepository.findAll().forEach(c -> System.out.println(c.getId() + " - " + c.getName()));
-        System.out.println("🧪 CategoryId recebido: " + request.getCategoryId());
+        validate(request);
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        dataVersionService.bump(user.getId());
 
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new RuntimeException("Category not found"));
+        Category category = categoryReference(request.getCategoryId());
 
         Transaction transaction = new Transaction();
         transaction.setUser(user);
@@ -51,123 +109,176 @@ public class TransactionService {
         transaction.setAmount(request.getAmount());
         transaction.setDate(request.getDate());
         transaction.setDescription(request.getDescription());
-        transaction.setType(request.getType());
+        transaction.setType(parseType(request.getType()));
 
         Transaction saved = transactionRepository.save(transaction);
+        rollupService.add(saved);
+        budgetService.add(saved);
 
-        return new TransactionResponse(
+        TransactionResponse response = new TransactionResponse(
                 saved.getId(),
                 saved.getDescription(),
                 saved.getAmount(),
-                saved.getType(),
+                saved.getType().name(),
                 saved.getDate(),
                 saved.getCategory().getId(),     // ✅ categoryId
-                saved.getCategory().getName()    // ✅ categoryName
+                categorySnapshot.get().name(saved.getCategory().getId())    // ✅ categoryName
         );
+        publishChange(user, TransactionChangedEvent.Kind.CREATED, response, null);
+        return response;
     }
 
+    @Transactional
     public TransactionResponse updateTransaction(Long id, TransactionRequest request) {
-        Transaction transaction = transactionRepository.findById(id)
+        validate(request);
+        Transaction transaction = transactionRepository.findWithAssociationsById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        // retira os valores antigos dos buckets antes de alterar a entidade
+        rollupService.remove(transaction);
+        budgetService.remove(transaction);
+        User previousUser = transaction.getUser();
+        TransactionResponse previous = new TransactionResponse(transaction);
 
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        bumpVersions(previousUser, user);
 
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new RuntimeException("Category not found"));
+        Category category = categoryReference(request.getCategoryId());
 
         transaction.setUser(user);
         transaction.setCategory(category);
         transaction.setAmount(request.getAmount());
         transaction.setDate(request.getDate());
         transaction.setDescription(request.getDescription());
-        transaction.setType(request.getType());
+        transaction.setType(parseType(request.getType()));
 
         Transaction updated = transactionRepository.save(transaction);
+        rollupService.add(updated);
+        budgetService.add(updated);
 
-        return new TransactionResponse(
+        TransactionResponse response = new TransactionResponse(
                 updated.getId(),
                 updated.getDescription(),
                 updated.getAmount(),
-                updated.getType(),
+                updated.getType().name(),
                 updated.getDate(),
                 updated.getCategory().getId(),
-                updated.getCategory().getName()
+                categorySnapshot.get().name(updated.getCategory().getId())
         );
-
+        if (previousUser != null && !previousUser.getId().equals(user.getId())) {
+            // mudou de utilizador: para o anterior é uma remoção, para o novo uma criação
+            publishChange(previousUser, TransactionChangedEvent.Kind.DELETED, null, previous);
+            publishChange(user, TransactionChangedEvent.Kind.CREATED, response, null);
+        } else {
+            publishChange(user, TransactionChangedEvent.Kind.UPDATED, response, previous);
+        }
+        return response;
     }
 
     public List<TransactionResponse> getAllTransactions(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        return transactionRepository.findByUserOrderByDateDesc(user).stream()
-                .map(t -> new TransactionResponse(
-                        t.getId(),
-                        t.getDescription(),
-                        t.getAmount(),
-                        t.getType(),
-                        t.getDate(),
-                        t.getCategory().getId(),       // ✅ categoryId
-                        t.getCategory().getName()      // ✅ categoryName
-                ))
-                .collect(Collectors.toList());
+        List<TransactionResponse> transactions = transactionRepository.findResponsesByUserId(userId);
+        if (transactions.isEmpty() && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        return transactions;
     }
 
-
+    @Transactional
     public void deleteTransaction(Long id) {
-        transactionRepository.deleteById(id);
+        transactionRepository.findWithAssociationsById(id).ifPresent(transaction -> {
+            TransactionResponse previous = new TransactionResponse(transaction);
+            if (transaction.getUser() != null) {
+                dataVersionService.bump(transaction.getUser().getId());
+            }
+            rollupService.remove(transaction);
+            budgetService.remove(transaction);
+            transactionRepository.delete(transaction);
+            publishChange(transaction.getUser(), TransactionChangedEvent.Kind.DELETED, null, previous);
+        });
     }
 
-    public Double calculateBalance(Long userId, LocalDate start, LocalDate end) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, start, end);
+    // por ordem de id, para duas alterações cruzadas entre os mesmos utilizadores não se bloquearem
+    private void bumpVersions(User previous, User current) {
+        if (previous == null || previous.getId().equals(current.getId())) {
+            dataVersionService.bump(current.getId());
+            return;
+        }
+        boolean previousFirst = previous.getId() < current.getId();
+        dataVersionService.bump(previousFirst ? previous.getId() : current.getId());
+        dataVersionService.bump(previousFirst ? current.getId() : previous.getId());
+    }
 
-        return transactions.stream()
-                .mapToDouble(t -> t.getType().equalsIgnoreCase("INCOME") ? t.getAmount() : -t.getAmount())
-                .sum();
+    // a existência é verificada no snapshot (validate); a referência não lê a categoria da base de dados
+    private Category categoryReference(Long categoryId) {
+        return categoryRepository.getReferenceById(categoryId);
     }
 
-    public Map<String, Double> getTotalsByType(Long userId, LocalDate start, LocalDate end) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Validações que não precisam da base de dados (as mesmas da importação em lote), feitas
+     * em cada escrita e antes de uma escrita ir para a fila do write-behind. Falham com 400.
+     */
+    public void validate(TransactionRequest request) {
+        String error = TransactionBatchService.validate(request, categorySnapshot.get());
+        if (error != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+        }
+    }
 
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, start, end);
+    private static TransactionType parseType(String type) {
+        TransactionType parsed = TransactionType.parse(type);
+        if (parsed == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Type must be INCOME or EXPENSE");
+        }
+        return parsed;
+    }
 
-        return transactions.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getType,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    private void publishChange(User user, TransactionChangedEvent.Kind kind,
+                               TransactionResponse transaction, TransactionResponse previous) {
+        if (user != null) {
+            eventPublisher.publishEvent(
+                    new TransactionChangedEvent(user.getId(), user.getEmail(), kind, transaction, previous));
+        }
     }
 
-    public Map<String, Double> getTotalsByCategory(Long userId, LocalDate start, LocalDate end) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public Double calculateBalance(Long userId, LocalDate start, LocalDate end) {
+        return requirePart(getSummary(userId, start, end).getBalance());
+    }
 
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, start, end);
+    public Map<String, Double> getTotalsByType(Long userId, LocalDate start, LocalDate end) {
+        return requirePart(getSummary(userId, start, end).getTotalsByType());
+    }
 
-        return transactions.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory().getName(),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    public Map<String, Double> getTotalsByCategory(Long userId, LocalDate start, LocalDate end) {
+        return requirePart(getSummary(userId, start, end).getTotalsByCategory());
     }
 
     public SummaryResponse getSummary(Long userId, LocalDate start, LocalDate end) {
-        Double balance = calculateBalance(userId, start, end);
-        Map<String, Double> byType = getTotalsByType(userId, start, end);
-        Map<String, Double> byCategory = getTotalsByCategory(userId, start, end);
+        return summaryCache.get(userId, start, end, () -> computeSummary(userId, start, end));
+    }
 
-        return new SummaryResponse(balance, byType, byCategory);
+    private SummaryResponse computeSummary(Long userId, LocalDate start, LocalDate end) {
+        if (columnarStore.isEnabled()) {
+            return summarizeColumns(userId, start, end);
+        }
+        if (parallelSummaries) {
+            SummaryResponse summary = summaryFanOutService.summarize(userId, start, end);
+            if (!summary.isDegraded() && summary.getTotalsByType().isEmpty() && !userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            return summary;
+        }
+        List<TypeCategoryTotal> rows = rollupsEnabled
+                ? rollupService.summarize(userId, start, end)
+                : transactionRepository.sumByTypeAndCategory(userId, start, end);
+        aggregationMetrics.record("summary", rollupsEnabled, rows);
+        if (rows.isEmpty() && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        return SummaryCalculator.summarize(rows);
     }
 
     public List<TransactionResponse> getTransactionsByUserId(Long userId) {
-        return transactionRepository.findByUserIdOrderByDateDesc(userId).stream()
-                .map(TransactionResponse::new)
-                .toList();
+        return transactionRepository.findResponsesByUserId(userId);
     }
 
     public List<Transaction> getTransactionsByEmail(String email) {
@@ -176,66 +287,144 @@ public class TransactionService {
                 .orElse(Collections.emptyList());
     }
     public Double calculateBalanceByEmail(String email, LocalDate start, LocalDate end) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, start, end);
-
-        return transactions.stream()
-                .mapToDouble(t -> t.getType().equalsIgnoreCase("INCOME") ? t.getAmount() : -t.getAmount())
-                .sum();
+        return requirePart(getSummaryByEmail(email, start, end).getBalance());
     }
 
     public Map<String, Double> getTotalsByTypeByEmail(String email, LocalDate start, LocalDate end) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return requirePart(getSummaryByEmail(email, start, end).getTotalsByType());
+    }
+    public List<TransactionResponse> getTransactionsByEmailAndDateRange(String email, LocalDate start, LocalDate end) {
+        return transactionRepository.findResponsesByUserIdAndDateBetween(findUserIdByEmail(email), start, end);
+    }
 
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetweenOrderByDateDesc(user, start, end);
+    public Map<String, Double> getTotalsByCategoryByEmail(String email, LocalDate start, LocalDate end) {
+        return requirePart(getSummaryByEmail(email, start, end).getTotalsByCategory());
+    }
 
-        return transactions.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getType,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    public SummaryResponse getSummaryByEmail(String email, LocalDate start, LocalDate end) {
+        return summaryCache.get(email, start, end, () -> computeSummaryByEmail(email, start, end));
     }
-    public List<TransactionResponse> getTransactionsByEmailAndDateRange(String email, LocalDate start, LocalDate end) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetweenOrderByDateDesc(user, start, end);
+    private SummaryResponse computeSummaryByEmail(String email, LocalDate start, LocalDate end) {
+        if (columnarStore.isEnabled()) {
+            return summarizeColumns(findUserIdByEmail(email), start, end);
+        }
+        if (parallelSummaries) {
+            return summaryFanOutService.summarize(findUserIdByEmail(email), start, end);
+        }
+        if (rollupsEnabled) {
+            List<TypeCategoryTotal> rows = rollupService.summarize(findUserIdByEmail(email), start, end);
+            aggregationMetrics.record("summary", true, rows);
+            return SummaryCalculator.summarize(rows);
+        }
+        List<TypeCategoryTotal> rows = transactionRepository.sumByTypeAndCategoryByEmail(email, start, end);
+        aggregationMetrics.record("summary", false, rows);
+        if (rows.isEmpty() && !userRepository.existsByEmail(email)) {
+            throw new RuntimeException("User not found");
+        }
+        return SummaryCalculator.summarize(rows);
+    }
 
-        return transactions.stream()
-                .map(t -> new TransactionResponse(
-                        t.getId(),
-                        t.getDescription(),
-                        t.getAmount(),
-                        t.getType(),
-                        t.getDate(),
-                        t.getCategory().getId(),     // ✅ categoryId
-                        t.getCategory().getName()    // ✅ categoryName
-                ))
-                .toList();
+    private SummaryResponse summarizeColumns(Long userId, LocalDate start, LocalDate end) {
+        List<TypeCategoryTotal> rows = columnarStore.totals(userId, start, end);
+        aggregationMetrics.record("summary", "columnar", rows);
+        return SummaryCalculator.summarize(rows);
     }
 
+    // os endpoints que devolvem só uma parte do resumo não têm como a marcar como em falta
+    private static <T> T requirePart(T part) {
+        if (part == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Summary timed out");
+        }
+        return part;
+    }
 
-    public Map<String, Double> getTotalsByCategoryByEmail(String email, LocalDate start, LocalDate end) {
-        User user = userRepository.findByEmail(email)
+    public Long findUserIdByEmail(String email) {
+        return userRepository.findIdByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public TransactionPage getTransactionPage(Long userId, LocalDate start, LocalDate end, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDate from = start != null ? start : MIN_DATE;
+        LocalDate to = end != null ? end : MAX_DATE;
+        // pede uma linha a mais para saber se existe página seguinte
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+
+        List<TransactionResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPage(userId, from, to, pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = transactionRepository.findPageAfter(userId, from, to, after.getDate(), after.getId(), pageable);
+        }
+        return toPage(rows, limit);
+    }
 
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetweenOrderByDateDesc(user, start, end);
+    public TransactionPage getTransactionPageByEmail(String email, LocalDate start, LocalDate end, String cursor, int size) {
+        return getTransactionPage(findUserIdByEmail(email), start, end, cursor, size);
+    }
 
-        return transactions.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory().getName(),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    public TransactionPage searchTransactions(Long userId, TransactionSearchCriteria criteria) {
+        int limit = Math.max(1, Math.min(criteria.getSize(), MAX_PAGE_SIZE));
+        TransactionType type = criteria.getType() == null || criteria.getType().isBlank()
+                ? null : parseType(criteria.getType());
+        PageCursor after = criteria.getCursor() == null || criteria.getCursor().isBlank()
+                ? null : PageCursor.decode(criteria.getCursor());
+
+        List<TransactionResponse> rows = transactionRepository.search(userId,
+                criteria.getStart() != null ? criteria.getStart() : MIN_DATE,
+                criteria.getEnd() != null ? criteria.getEnd() : MAX_DATE,
+                searchPattern(criteria.getQ()),
+                criteria.getCategoryId(),
+                type,
+                criteria.getMinAmount() != null ? Money.toMinor(criteria.getMinAmount()) : null,
+                criteria.getMaxAmount() != null ? Money.toMinor(criteria.getMaxAmount()) : null,
+                after != null ? after.getDate() : null,
+                after != null ? after.getId() : null,
+                PageRequest.ofSize(limit + 1));
+        return toPage(rows, limit);
     }
 
-    public SummaryResponse getSummaryByEmail(String email, LocalDate start, LocalDate end) {
-        Double balance = calculateBalanceByEmail(email, start, end);
-        Map<String, Double> byType = getTotalsByTypeByEmail(email, start, end);
-        Map<String, Double> byCategory = getTotalsByCategoryByEmail(email, start, end);
+    public TransactionPage searchTransactionsByEmail(String email, TransactionSearchCriteria criteria) {
+        return searchTransactions(findUserIdByEmail(email), criteria);
+    }
+
+    // "café lisboa" -> "%café%lisboa%": as palavras têm de aparecer por esta ordem, em qualquer posição
+    private static String searchPattern(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder("%");
+        for (String term : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            pattern.append(term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")).append('%');
+        }
+        return pattern.toString();
+    }
+
+    private static TransactionPage toPage(List<TransactionResponse> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<TransactionResponse> page = hasMore ? List.copyOf(rows.subList(0, limit)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionResponse last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getDate(), last.getId()).encode();
+        }
+        return new TransactionPage(page, nextCursor);
+    }
 
-        return new SummaryResponse(balance, byType, byCategory);
+    /**
+     * Percorre as transações do intervalo com um cursor da base de dados, entregando
+     * cada linha ao sink. As linhas são projetadas diretamente em DTOs, pelo que nada
+     * fica retido no contexto de persistência.
+     */
+    @Transactional(readOnly = true)
+    public void streamTransactions(Long userId, LocalDate start, LocalDate end, Consumer<TransactionResponse> sink) {
+        LocalDate from = start != null ? start : MIN_DATE;
+        LocalDate to = end != null ? end : MAX_DATE;
+
+        try (Stream<TransactionResponse> rows = transactionRepository.streamByUserAndDateBetween(userId, from, to)) {
+            rows.forEach(sink);
+        }
     }
 }
@@ -0,0 +1,226 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.dto.WriteStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fila de escritas com group commit (WriteDurability GROUP_COMMIT e ACCEPTED). Uma única
+ * thread tira da fila até transaction.write-behind.max-batch escritas, esperando no máximo
+ * transaction.write-behind.max-delay pelas seguintes, e grava-as todas numa só transação:
+ * um commit (e um flush do WAL) por grupo em vez de um por pedido. Com max-delay a zero
+ * agrupa apenas o que chegou enquanto o grupo anterior estava a ser gravado.
+ * <p>
+ * Se o grupo falhar, cada escrita é repetida na sua própria transação, para que uma
+ * escrita inválida não faça falhar as outras. A fila é limitada: cheia, responde 503.
+ */
+@Slf4j
+@Service
+public class TransactionWritePipeline {
+
+    private static final String PENDING = "PENDING";
+    private static final String COMMITTED = "COMMITTED";
+    private static final String FAILED = "FAILED";
+
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, OwnedStatus> statuses;
+    private final DistributionSummary groupSize;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Thread worker;
+    private volatile boolean accepting = true;
+
+    public TransactionWritePipeline(@Value("${transaction.write-behind.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${transaction.write-behind.max-batch:100}") int maxBatch,
+                                    @Value("${transaction.write-behind.max-delay:0ms}") Duration maxDelay,
+                                    @Value("${transaction.write-behind.status-retention:10m}") Duration statusRetention,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.transactionTemplate = transactionTemplate;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(statusRetention)
+                .build();
+        this.groupSize = DistributionSummary.builder("finance.write.group.size")
+                .description("Escritas gravadas por commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("finance.write.queue.size", queue, BlockingQueue::size);
+        this.worker = new CustomizableThreadFactory("write-behind-").newThread(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Põe a escrita na fila. O future completa depois do commit do grupo em que foi gravada,
+     * ou com a exceção da escrita.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> write) {
+        PendingWrite<T> pending = new PendingWrite<>(write, SecurityContextHolder.getContext());
+        if (!accepting || !queue.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Write queue is full, try again later");
+        }
+        return pending.future;
+    }
+
+    /**
+     * Põe a escrita na fila e devolve logo o estado PENDING; o resultado fica em getStatus.
+     */
+    public WriteStatus accept(Supplier<TransactionResponse> write) {
+        String id = UUID.randomUUID().toString();
+        String owner = currentOwner();
+        Instant createdAt = Instant.now();
+        OwnedStatus pending = new OwnedStatus(owner, new WriteStatus(id, PENDING, null, null, createdAt, null));
+        statuses.put(id, pending);
+        try {
+            submit(write).whenComplete((response, error) -> statuses.put(id, new OwnedStatus(owner, error == null
+                    ? new WriteStatus(id, COMMITTED, response, null, createdAt, Instant.now())
+                    : new WriteStatus(id, FAILED, null, message(error), createdAt, Instant.now()))));
+        } catch (ResponseStatusException e) {
+            statuses.invalidate(id);
+            throw e;
+        }
+        return pending.status();
+    }
+
+    public WriteStatus getStatus(String id) {
+        OwnedStatus status = statuses.getIfPresent(id);
+        if (status == null || !Objects.equals(status.owner(), currentOwner())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Write not found");
+        }
+        return status.status();
+    }
+
+    private void run() {
+        List<PendingWrite<?>> group = new ArrayList<>(maxBatch);
+        try {
+            while (true) {
+                group.add(queue.take());
+                collect(group);
+                commit(group);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            // paragem: o que já foi aceite ainda é gravado
+            queue.drainTo(group);
+            for (int from = 0; from < group.size(); from += maxBatch) {
+                commit(group.subList(from, Math.min(group.size(), from + maxBatch)));
+            }
+        }
+    }
+
+    private void collect(List<PendingWrite<?>> group) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (group.size() < maxBatch) {
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) {
+                queue.drainTo(group, maxBatch - group.size());
+                return;
+            }
+            PendingWrite<?> next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> group) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> group.forEach(PendingWrite::run));
+            groupSize.record(group.size());
+            group.forEach(PendingWrite::complete);
+            return;
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} writes failed, retrying one by one: {}", group.size(), e.getMessage());
+        }
+        for (PendingWrite<?> write : group) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write.run());
+                groupSize.record(1);
+                write.complete();
+            } catch (RuntimeException e) {
+                write.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static String currentOwner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static String message(Throwable error) {
+        return error instanceof ResponseStatusException e ? e.getReason() : error.getMessage();
+    }
+
+    // espera que a fila esvazie antes de fechar a ligação à base de dados
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private static final class PendingWrite<T> {
+        private final Supplier<T> write;
+        private final SecurityContext context;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+
+        private PendingWrite(Supplier<T> write, SecurityContext context) {
+            this.write = write;
+            this.context = context;
+        }
+
+        // corre com o utilizador do pedido (ex.: o âmbito da Idempotency-Key)
+        private void run() {
+            SecurityContextHolder.setContext(context);
+            try {
+                result = write.get();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }
+
+        private void complete() {
+            future.complete(result);
+        }
+    }
+
+    private record OwnedStatus(String owner, WriteStatus status) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.diogo.finance.service;
+
+/**
+ * Quando é que uma escrita de transação responde ao cliente, configurável por endpoint
+ * (transaction.write.create.durability, transaction.write.update.durability).
+ */
+public enum WriteDurability {
+    /** Transação e commit próprios na thread do pedido. Responde depois do commit. */
+    SYNC,
+    /** Vai para a fila e é gravada num group commit com outras escritas. Responde depois do commit. */
+    GROUP_COMMIT,
+    /**
+     * Vai para a fila e responde logo 202 com o id para consultar o estado. Só é durável
+     * quando o estado passa a COMMITTED: se a aplicação parar antes, a escrita perde-se.
+     */
+    ACCEPTED
+}
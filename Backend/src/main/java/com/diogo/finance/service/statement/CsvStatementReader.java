@@ -0,0 +1,157 @@
+package com.diogo.finance.service.statement;
+
+import com.diogo.finance.dto.TransactionRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV com cabeçalho. Colunas reconhecidas (sem distinção de maiúsculas):
+ * date, description, amount, type, categoryId. Sem coluna type, o sinal do
+ * valor decide entre INCOME e EXPENSE. O separador (',' ou ';') é detetado no
+ * cabeçalho. Campos entre aspas não podem conter quebras de linha.
+ */
+public class CsvStatementReader implements StatementReader {
+
+    private final BufferedReader reader;
+    private final Long defaultCategoryId;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private char delimiter = ',';
+    private boolean headerRead;
+
+    public CsvStatementReader(Reader reader, Long defaultCategoryId) {
+        this.reader = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        this.defaultCategoryId = defaultCategoryId;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        try {
+            return StatementRow.of(toRequest(split(line)));
+        } catch (IllegalArgumentException e) {
+            return StatementRow.error(e.getMessage());
+        }
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        delimiter = count(header, ';') > count(header, ',') ? ';' : ',';
+
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("date") || !columns.containsKey("amount")) {
+            throw new IOException("CSV header must contain at least 'date' and 'amount'");
+        }
+    }
+
+    private TransactionRequest toRequest(List<String> fields) {
+        double amount = StatementValues.parseAmount(required(fields, "amount"));
+        String type = value(fields, "type");
+
+        TransactionRequest request = new TransactionRequest();
+        request.setDate(StatementValues.parseDate(required(fields, "date")));
+        request.setDescription(value(fields, "description"));
+        request.setType(type != null ? type.trim().toUpperCase(Locale.ROOT) : (amount < 0 ? "EXPENSE" : "INCOME"));
+        request.setAmount(Math.abs(amount));
+
+        String categoryId = value(fields, "categoryid");
+        if (categoryId != null) {
+            try {
+                request.setCategoryId(Long.parseLong(categoryId.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid categoryId: " + categoryId.trim());
+            }
+        } else {
+            request.setCategoryId(defaultCategoryId);
+        }
+        return request;
+    }
+
+    private String value(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isBlank()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private String required(List<String> fields, String column) {
+        String v = value(fields, column);
+        if (v == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return v;
+    }
+
+    private List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static int count(String s, char c) {
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == c) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
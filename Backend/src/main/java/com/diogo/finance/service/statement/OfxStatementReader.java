@@ -0,0 +1,102 @@
+package com.diogo.finance.service.statement;
+
+import com.diogo.finance.dto.TransactionRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Leitor de OFX (SGML 1.x ou XML 2.x). Percorre o ficheiro tag a tag e emite uma
+ * linha por cada bloco STMTTRN, usando TRNAMT, DTPOSTED e NAME/MEMO. Como o OFX
+ * não tem categorias, todas as linhas usam a categoria por omissão.
+ */
+public class OfxStatementReader implements StatementReader {
+
+    private final BufferedReader reader;
+    private final Long defaultCategoryId;
+    private final StringBuilder buffer = new StringBuilder();
+
+    public OfxStatementReader(Reader reader, Long defaultCategoryId) {
+        this.reader = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        this.defaultCategoryId = defaultCategoryId;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        Map<String, String> fields = null;
+        String tag;
+
+        while ((tag = nextTag()) != null) {
+            if (tag.equals("STMTTRN")) {
+                fields = new HashMap<>();
+            } else if (tag.equals("/STMTTRN") && fields != null) {
+                return toRow(fields);
+            } else if (fields != null && !tag.startsWith("/")) {
+                fields.put(tag, readText());
+            }
+        }
+        return null;
+    }
+
+    private StatementRow toRow(Map<String, String> fields) {
+        try {
+            String rawAmount = fields.get("TRNAMT");
+            String rawDate = fields.get("DTPOSTED");
+            if (rawAmount == null || rawDate == null) {
+                return StatementRow.error("Missing TRNAMT or DTPOSTED");
+            }
+            double amount = StatementValues.parseAmount(rawAmount);
+
+            TransactionRequest request = new TransactionRequest();
+            request.setDate(StatementValues.parseOfxDate(rawDate));
+            request.setAmount(Math.abs(amount));
+            request.setType(amount < 0 ? "EXPENSE" : "INCOME");
+            request.setDescription(fields.getOrDefault("NAME", fields.get("MEMO")));
+            request.setCategoryId(defaultCategoryId);
+            return StatementRow.of(request);
+        } catch (IllegalArgumentException e) {
+            return StatementRow.error(e.getMessage());
+        }
+    }
+
+    // devolve o nome da próxima tag (ex.: "STMTTRN", "/STMTTRN") ou null no fim
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = reader.read()) != -1 && c != '<') {
+            // ignora texto fora das tags que nos interessam
+        }
+        if (c == -1) {
+            return null;
+        }
+        buffer.setLength(0);
+        while ((c = reader.read()) != -1 && c != '>') {
+            buffer.append((char) c);
+        }
+        return buffer.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // texto de um elemento, até ao próximo '<' (que fica por consumir)
+    private String readText() throws IOException {
+        buffer.setLength(0);
+        int c;
+        while (true) {
+            reader.mark(1);
+            c = reader.read();
+            if (c == -1 || c == '<') {
+                reader.reset();
+                break;
+            }
+            buffer.append((char) c);
+        }
+        return buffer.toString().trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,13 @@
+package com.diogo.finance.service.statement;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Leitor incremental de extratos bancários: devolve uma linha de cada vez, sem
+ * carregar o ficheiro em memória. Devolve null no fim do ficheiro.
+ */
+public interface StatementReader extends Closeable {
+
+    StatementRow next() throws IOException;
+}
@@ -0,0 +1,17 @@
+package com.diogo.finance.service.statement;
+
+import com.diogo.finance.dto.TransactionRequest;
+
+/**
+ * Uma linha lida de um extrato: ou um pedido de transação, ou o erro de parsing.
+ */
+public record StatementRow(TransactionRequest request, String error) {
+
+    public static StatementRow of(TransactionRequest request) {
+        return new StatementRow(request, null);
+    }
+
+    public static StatementRow error(String error) {
+        return new StatementRow(null, error);
+    }
+}
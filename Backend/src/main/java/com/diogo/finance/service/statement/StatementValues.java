@@ -0,0 +1,100 @@
+package com.diogo.finance.service.statement;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * Conversões comuns aos formatos de extrato (datas e valores).
+ */
+final class StatementValues {
+
+    private static final DateTimeFormatter DAY_FIRST = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final char NO_SEPARATOR = 0;
+
+    private StatementValues() {
+    }
+
+    static LocalDate parseDate(String value) {
+        String v = value.trim();
+        try {
+            return v.contains("/") ? LocalDate.parse(v, DAY_FIRST) : LocalDate.parse(v);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + v);
+        }
+    }
+
+    // DTPOSTED no OFX: AAAAMMDD[hhmmss[.xxx]][[tz]]
+    static LocalDate parseOfxDate(String value) {
+        String v = value.trim();
+        if (v.length() < 8) {
+            throw new IllegalArgumentException("Invalid date: " + v);
+        }
+        try {
+            return LocalDate.parse(v.substring(0, 8), OFX_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + v);
+        }
+    }
+
+    /**
+     * Aceita "1234.56", "1234,56", "1.234,56" e "1,234.56": com os dois separadores o último é o
+     * decimal; o mesmo separador repetido ("1.234.567") é de milhares. Um único separador seguido
+     * de três dígitos ("1,234") tanto pode ser decimal como de milhares e é recusado.
+     */
+    static double parseAmount(String value) {
+        String v = value.trim().replace(" ", "");
+        char last = v.lastIndexOf('.') > v.lastIndexOf(',') ? '.' : ',';
+        char other = last == '.' ? ',' : '.';
+        int at = v.lastIndexOf(last);
+        String integer = v;
+        String fraction = null;
+        char thousands = NO_SEPARATOR;
+        if (at >= 0 && v.indexOf(last) != at) {
+            if (v.indexOf(other) >= 0) {
+                throw invalidAmount(value);
+            }
+            thousands = last;
+        } else if (at >= 0) {
+            integer = v.substring(0, at);
+            fraction = v.substring(at + 1);
+            if (v.indexOf(other) >= 0) {
+                thousands = other;
+            } else if (fraction.length() == 3 && groups(integer, NO_SEPARATOR)) {
+                throw new IllegalArgumentException("Ambiguous amount: " + value.trim());
+            }
+        }
+        if (thousands != NO_SEPARATOR) {
+            if (!groups(integer, thousands)) {
+                throw invalidAmount(value);
+            }
+            integer = integer.replace(String.valueOf(thousands), "");
+        }
+        try {
+            return Double.parseDouble(fraction != null ? integer + "." + fraction : integer);
+        } catch (NumberFormatException e) {
+            throw invalidAmount(value);
+        }
+    }
+
+    // parte inteira em grupos de milhares: o primeiro com 1 a 3 dígitos (sem zero à esquerda), os outros com 3
+    private static boolean groups(String integer, char separator) {
+        String digits = integer.startsWith("-") || integer.startsWith("+") ? integer.substring(1) : integer;
+        String[] parts = separator != NO_SEPARATOR ? digits.split(Pattern.quote(String.valueOf(separator)), -1)
+                : new String[]{digits};
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            boolean size = i == 0 ? !part.isEmpty() && part.length() <= 3 && part.charAt(0) != '0' : part.length() == 3;
+            if (!size || !part.chars().allMatch(Character::isDigit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IllegalArgumentException invalidAmount(String value) {
+        return new IllegalArgumentException("Invalid amount: " + value.trim());
+    }
+}
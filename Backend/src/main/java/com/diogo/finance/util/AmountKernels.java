@@ -0,0 +1,24 @@
+package com.diogo.finance.util;
+
+/**
+ * Agregações sobre colunas primitivas de valores em unidades mínimas (long).
+ * Sem boxing e com somas exatas; os ciclos são simples para o JIT os poder vetorizar.
+ */
+public final class AmountKernels {
+
+    private AmountKernels() {
+    }
+
+    /**
+     * Acumula {@code amounts[i]} e conta a linha no par ({@code outer[i]}, {@code inner[i]}),
+     * no índice {@code outer * innerCount + inner} de {@code totals} e {@code counts}.
+     */
+    public static void sumAndCountByPair(long[] amounts, int[] outer, byte[] inner, int innerCount,
+                                         int from, int to, long[] totals, long[] counts) {
+        for (int i = from; i < to; i++) {
+            int code = outer[i] * innerCount + inner[i];
+            totals[code] += amounts[i];
+            counts[code]++;
+        }
+    }
+}
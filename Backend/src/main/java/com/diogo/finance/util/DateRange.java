@@ -0,0 +1,36 @@
+package com.diogo.finance.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Intervalo de datas fechado [start, end]. Em texto usa a notação de intervalo
+ * ISO 8601: {@code 2025-01-01/2025-01-31}.
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+
+    public boolean contains(LocalDate date) {
+        return !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    public boolean isWholeMonths() {
+        return start.getDayOfMonth() == 1 && end.plusDays(1).getDayOfMonth() == 1;
+    }
+
+    public static DateRange parse(String value) {
+        try {
+            int sep = value.indexOf('/');
+            LocalDate start = LocalDate.parse(value.substring(0, sep).trim());
+            LocalDate end = LocalDate.parse(value.substring(sep + 1).trim());
+            if (end.isBefore(start)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range end is before start: " + value);
+            }
+            return new DateRange(start, end);
+        } catch (IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid range: " + value);
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package com.diogo.finance.util;
 
+import com.diogo.finance.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -17,13 +29,68 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize = 10_000;
+
     private Key key;
     private final long expiration = 1000 * 60 * 60; // 1 hora
 
+    // o parser do jjwt é imutável e thread-safe, pode ser partilhado
+    private JwtParser parser;
+
+    // token já verificado -> subject, válido até à expiração do próprio token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    // fora do Spring (benchmarks) fica o registry global, sem custo
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer invalidTimer;
+
     @PostConstruct
     public void init() {
         byte[] decodedKey = Base64.getDecoder().decode(secret);
         this.key = Keys.hmacShaKeyFor(decodedKey);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long millis = verified.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(token, verified, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        this.cachedTimer = validationTimer("cached");
+        this.verifiedTimer = validationTimer("verified");
+        this.invalidTimer = validationTimer("invalid");
+    }
+
+    private Timer validationTimer(String result) {
+        return Timer.builder("finance.jwt.validation")
+                .description("Validação de tokens JWT")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public String generateToken(String email) {
@@ -36,11 +103,33 @@ public class JwtUtil {
     }
 
     public String validateToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        long start = System.nanoTime();
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached.subject();
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (RuntimeException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime()));
+        }
+        verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims.getSubject();
+    }
+
+    public CacheStatsResponse cacheStats() {
+        CacheStats stats = verifiedTokens.stats();
+        return new CacheStatsResponse("jwt", verifiedTokens.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    private record VerifiedToken(String subject, long expiresAt) {
     }
 }
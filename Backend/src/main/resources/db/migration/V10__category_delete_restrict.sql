@@ -0,0 +1,14 @@
+-- Apagar uma categoria já não apaga os orçamentos e as regras recorrentes que a usam:
+-- o CategoryService responde 409, como acontece com as transações, e a base de dados
+-- recusa o delete se algum escapar a essa verificação.
+alter table budget drop constraint if exists budget_category_id_fkey;
+alter table budget add constraint budget_category_id_fkey
+    foreign key (category_id) references category (id) on delete restrict;
+
+alter table recurring_rule drop constraint if exists recurring_rule_category_id_fkey;
+alter table recurring_rule add constraint recurring_rule_category_id_fkey
+    foreign key (category_id) references category (id) on delete restrict;
+
+-- para a verificação da chave estrangeira (e o existsByCategoryId) não percorrer as tabelas
+create index if not exists idx_budget_category on budget (category_id);
+create index if not exists idx_recurring_rule_category on recurring_rule (category_id);
@@ -0,0 +1,24 @@
+-- type e category_id podem ser null (transações sem categoria) e, numa restrição unique, dois
+-- nulls nunca são iguais: o on conflict dos upserts do RollupService não apanhava essas linhas
+-- e cada escrita (incluindo a remoção) inseria uma linha nova no mesmo bucket. A chave passa
+-- a ser um índice único sobre coalesce, com -1 no lugar dos nulls (nenhum id ou código é -1).
+
+-- os rollups são derivados de transaction; o RollupService reconstrói-os no arranque quando estão vazios
+truncate daily_rollup, monthly_rollup;
+
+-- inclui as restrições com nome gerado pelo Hibernate em bases anteriores ao Flyway
+do $$
+declare
+    c record;
+begin
+    for c in select conrelid::regclass as tbl, conname from pg_constraint
+             where contype = 'u' and conrelid in ('daily_rollup'::regclass, 'monthly_rollup'::regclass)
+    loop
+        execute format('alter table %s drop constraint %I', c.tbl, c.conname);
+    end loop;
+end $$;
+
+create unique index if not exists uk_daily_rollup_key
+    on daily_rollup (user_id, bucket, coalesce(type, -1), coalesce(category_id, -1));
+create unique index if not exists uk_monthly_rollup_key
+    on monthly_rollup (user_id, bucket, coalesce(type, -1), coalesce(category_id, -1));
@@ -0,0 +1,55 @@
+-- Esquema inicial, equivalente ao que o ddl-auto=update criava. É idempotente para
+-- poder correr sobre bases já existentes (baseline-on-migrate com baseline-version=0).
+
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists category_seq start with 1 increment by 50;
+create sequence if not exists transaction_seq start with 1 increment by 50;
+
+create table if not exists users (
+    id       bigint not null primary key,
+    email    varchar(255) unique,
+    name     varchar(255),
+    password varchar(255)
+);
+
+create table if not exists category (
+    id   bigint not null primary key,
+    name varchar(255)
+);
+
+create table if not exists transaction (
+    id           bigint not null primary key,
+    amount_minor bigint,
+    date         date,
+    description  varchar(255),
+    type         varchar(255),
+    category_id  bigint references category (id),
+    user_id      bigint references users (id)
+);
+
+alter table transaction add column if not exists amount_minor bigint;
+
+create table if not exists daily_rollup (
+    id          bigint generated by default as identity primary key,
+    bucket      date   not null,
+    category_id bigint,
+    total_minor bigint,
+    tx_count    bigint,
+    type        varchar(255),
+    user_id     bigint not null,
+    constraint uk_daily_rollup_key unique (user_id, bucket, type, category_id)
+);
+
+create table if not exists monthly_rollup (
+    id          bigint generated by default as identity primary key,
+    bucket      date   not null,
+    category_id bigint,
+    total_minor bigint,
+    tx_count    bigint,
+    type        varchar(255),
+    user_id     bigint not null,
+    constraint uk_monthly_rollup_key unique (user_id, bucket, type, category_id)
+);
+
+alter table daily_rollup add column if not exists total_minor bigint;
+alter table monthly_rollup add column if not exists total_minor bigint;
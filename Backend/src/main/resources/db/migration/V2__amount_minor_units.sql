@@ -0,0 +1,16 @@
+-- Bases anteriores aos valores em cêntimos ainda têm a coluna amount (double precision).
+do $$
+begin
+    if exists (select 1 from information_schema.columns
+               where table_schema = current_schema() and table_name = 'transaction' and column_name = 'amount') then
+        update transaction set amount_minor = round(cast(amount as numeric) * 100)
+        where amount_minor is null and amount is not null;
+        alter table transaction drop column amount;
+    end if;
+end $$;
+
+alter table daily_rollup drop column if exists total;
+alter table monthly_rollup drop column if exists total;
+
+-- os rollups são derivados de transaction; o RollupService reconstrói-os no arranque quando estão vazios
+truncate daily_rollup, monthly_rollup;
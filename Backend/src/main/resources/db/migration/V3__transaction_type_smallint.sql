@@ -0,0 +1,10 @@
+-- type passa a smallint com os códigos de TransactionType (INCOME = 0, EXPENSE = 1).
+-- Valores desconhecidos já contavam como despesa no saldo, por isso ficam EXPENSE.
+alter table transaction alter column type type smallint
+    using case when type is null then null when upper(type) = 'INCOME' then 0 else 1 end;
+
+alter table daily_rollup alter column type type smallint
+    using case when type is null then null when upper(type) = 'INCOME' then 0 else 1 end;
+
+alter table monthly_rollup alter column type type smallint
+    using case when type is null then null when upper(type) = 'INCOME' then 0 else 1 end;
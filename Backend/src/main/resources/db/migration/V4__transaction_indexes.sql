@@ -0,0 +1,8 @@
+-- Listagens e keyset pagination: where user_id = ? [and date between ? and ?] order by date desc, id desc
+create index if not exists idx_transaction_user_date_id on transaction (user_id, date desc, id desc);
+
+-- Somas por tipo/categoria num intervalo de datas servidas só pelo índice (index-only scan)
+create index if not exists idx_transaction_user_date_totals on transaction (user_id, date)
+    include (type, category_id, amount_minor);
+
+analyze transaction;
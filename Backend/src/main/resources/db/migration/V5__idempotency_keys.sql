@@ -0,0 +1,14 @@
+-- Respostas já enviadas para pedidos de escrita com Idempotency-Key, por utilizador.
+-- request_hash deteta a reutilização da mesma chave com outro pedido; as linhas
+-- expiradas são apagadas periodicamente (IdempotencyService.purgeExpired).
+create table if not exists idempotency_key (
+    scope        varchar(255) not null,
+    idem_key     varchar(128) not null,
+    request_hash varchar(64)  not null,
+    response     text,
+    created_at   timestamp(6) with time zone not null,
+    expires_at   timestamp(6) with time zone not null,
+    primary key (scope, idem_key)
+);
+
+create index if not exists idx_idempotency_key_expires_at on idempotency_key (expires_at);
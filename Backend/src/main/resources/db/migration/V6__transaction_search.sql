@@ -0,0 +1,10 @@
+-- Pesquisa por texto na descrição: lower(description) like '%termo%' servido por um índice
+-- de trigramas. Com btree_gin o user_id entra no mesmo índice GIN, pelo que só são lidas
+-- as entradas do utilizador em vez das de todos os utilizadores com o mesmo trigrama.
+create extension if not exists pg_trgm;
+create extension if not exists btree_gin;
+
+create index if not exists idx_transaction_user_description_trgm on transaction
+    using gin (user_id, lower(description) gin_trgm_ops);
+
+analyze transaction;
@@ -0,0 +1,18 @@
+-- Orçamentos mensais por utilizador e categoria (despesas). budget_spend guarda o gasto
+-- de cada mês, atualizado por upsert na mesma transação de cada escrita, e o maior
+-- limiar de alerta já enviado nesse mês. BudgetService.reconcile corrige desvios.
+create table if not exists budget (
+    id          bigint generated by default as identity primary key,
+    user_id     bigint not null references users (id) on delete cascade,
+    category_id bigint not null references category (id) on delete cascade,
+    limit_minor bigint not null,
+    constraint uk_budget_user_category unique (user_id, category_id)
+);
+
+create table if not exists budget_spend (
+    budget_id       bigint   not null references budget (id) on delete cascade,
+    month           date     not null,
+    spent_minor     bigint   not null default 0,
+    alerted_percent smallint not null default 0,
+    primary key (budget_id, month)
+);
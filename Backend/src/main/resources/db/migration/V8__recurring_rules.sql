@@ -0,0 +1,21 @@
+-- Regras de transações recorrentes. next_date é a data da próxima ocorrência ainda
+-- não gravada (null quando a regra terminou); o índice parcial serve de fila por data:
+-- o RecurringTransactionService só lê as regras vencidas, nunca percorre todas.
+create table if not exists recurring_rule (
+    id          bigint generated by default as identity primary key,
+    user_id     bigint       not null references users (id) on delete cascade,
+    category_id bigint       not null references category (id) on delete cascade,
+    description varchar(255),
+    amount_minor bigint      not null,
+    type        smallint     not null,
+    frequency   varchar(16)  not null,
+    every       integer      not null,
+    start_date  date         not null,
+    end_date    date,
+    next_index  bigint       not null default 0,
+    next_date   date,
+    last_date   date
+);
+
+create index if not exists idx_recurring_rule_next_date on recurring_rule (next_date, id) where next_date is not null;
+create index if not exists idx_recurring_rule_user on recurring_rule (user_id);
@@ -0,0 +1,3 @@
+-- Versão dos dados de cada utilizador, incrementada na transação de cada escrita de
+-- transações. Serve para as ETags das listagens e resumos (DataVersionService).
+alter table users add column if not exists data_version bigint not null default 0;
@@ -0,0 +1,46 @@
+-- Opcional, para instalações grandes: particiona transaction por ano (range em date).
+-- Ativar com spring.flyway.locations=classpath:db/migration,classpath:db/partitioning.
+-- A chave primária de uma tabela particionada tem de incluir date, por isso o id passa
+-- a ter só um índice (os ids vêm de transaction_seq e continuam únicos).
+
+alter table transaction rename to transaction_unpartitioned;
+
+create table transaction (like transaction_unpartitioned including defaults) partition by range (date);
+
+do $$
+declare
+    first_year int;
+    last_year  int := extract(year from current_date)::int + 2;
+begin
+    -- no máximo 20 anos para trás; o resto fica na partição default
+    select greatest(coalesce(extract(year from min(date))::int, last_year - 2), last_year - 22)
+    into first_year from transaction_unpartitioned;
+
+    for y in first_year..last_year loop
+        execute format('create table transaction_y%s partition of transaction for values from (%L) to (%L)',
+                       y, make_date(y, 1, 1), make_date(y + 1, 1, 1));
+    end loop;
+end $$;
+
+-- datas nulas ou fora dos anos criados
+create table transaction_default partition of transaction default;
+
+insert into transaction select * from transaction_unpartitioned;
+drop table transaction_unpartitioned;
+
+alter table transaction add foreign key (category_id) references category (id);
+alter table transaction add foreign key (user_id) references users (id);
+
+create index idx_transaction_id on transaction (id);
+create index idx_transaction_user_date_id on transaction (user_id, date desc, id desc);
+create index idx_transaction_user_date_totals on transaction (user_id, date)
+    include (type, category_id, amount_minor);
+
+-- o índice de pesquisa do V6 caiu com a tabela antiga quando este script corre fora de ordem
+-- (base já migrada); numa instalação nova corre antes do V6, que passa a não fazer nada
+create extension if not exists pg_trgm;
+create extension if not exists btree_gin;
+create index if not exists idx_transaction_user_description_trgm on transaction
+    using gin (user_id, lower(description) gin_trgm_ops);
+
+analyze transaction;
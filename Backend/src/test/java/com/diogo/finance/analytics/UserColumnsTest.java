@@ -0,0 +1,87 @@
+package com.diogo.finance.analytics;
+
+import com.diogo.finance.dto.TypeCategoryTotal;
+import com.diogo.finance.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class UserColumnsTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 10);
+    private static final LocalDate FEB = LocalDate.of(2025, 2, 10);
+    private static final LocalDate MAR = LocalDate.of(2025, 3, 10);
+
+    private UserColumns columns() {
+        return UserColumns.builder()
+                .add(1, JAN, 1000, TransactionType.EXPENSE, 10L)
+                .add(2, FEB, 2000, TransactionType.EXPENSE, 10L)
+                .add(3, MAR, 5000, TransactionType.INCOME, null)
+                .build();
+    }
+
+    @Test
+    void totalsSumOnlyTheDateRangeGroupedByTypeAndCategory() {
+        List<TypeCategoryTotal> rows = columns().totals(JAN, FEB, id -> "cat" + id);
+
+        assertThat(rows).extracting(TypeCategoryTotal::getType, TypeCategoryTotal::getCategoryName,
+                        TypeCategoryTotal::getTotal, TypeCategoryTotal::getRowCount)
+                .containsExactly(tuple("EXPENSE", "cat10", 3000L, 2L));
+    }
+
+    @Test
+    void totalsIncludeBothEndsAndUncategorised() {
+        List<TypeCategoryTotal> rows = columns().totals(FEB, MAR, id -> "cat" + id);
+
+        assertThat(rows).extracting(TypeCategoryTotal::getType, TypeCategoryTotal::getCategoryName,
+                        TypeCategoryTotal::getTotal)
+                .containsExactlyInAnyOrder(tuple("EXPENSE", "cat10", 2000L), tuple("INCOME", null, 5000L));
+        assertThat(columns().totals(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), id -> "x")).isEmpty();
+    }
+
+    @Test
+    void withInsertsInDateOrderWithoutTouchingNeighbours() {
+        UserColumns original = columns();
+        UserColumns updated = original.with(4, LocalDate.of(2025, 2, 1), 700, TransactionType.EXPENSE, 20L);
+
+        assertThat(original.size()).isEqualTo(3);
+        assertThat(updated.size()).isEqualTo(4);
+        assertThat(total(updated, JAN, JAN)).isEqualTo(1000);
+        assertThat(total(updated, LocalDate.of(2025, 2, 1), FEB)).isEqualTo(2700);
+        assertThat(total(updated, MAR, MAR)).isEqualTo(5000);
+        assertThat(updated.with(5, LocalDate.of(2024, 12, 1), 1, TransactionType.EXPENSE, null)
+                .with(6, LocalDate.of(2025, 4, 1), 2, TransactionType.EXPENSE, null).size()).isEqualTo(6);
+    }
+
+    @Test
+    void withReplacesAnExistingIdSoReplayedEventsDoNotDoubleCount() {
+        UserColumns moved = columns()
+                .with(2, MAR, 2500, TransactionType.EXPENSE, 10L)
+                .with(2, MAR, 2500, TransactionType.EXPENSE, 10L);
+
+        assertThat(moved.size()).isEqualTo(3);
+        assertThat(total(moved, FEB, FEB)).isZero();
+        assertThat(total(moved, MAR, MAR)).isEqualTo(7500);
+    }
+
+    @Test
+    void withoutRemovesOnlyTheMatchingRowAndIsIdempotent() {
+        UserColumns original = columns();
+        UserColumns removed = original.without(2, FEB);
+
+        assertThat(removed.size()).isEqualTo(2);
+        assertThat(total(removed, JAN, MAR)).isEqualTo(6000);
+        assertThat(removed.without(2, FEB)).isSameAs(removed);
+        assertThat(original.without(2, JAN)).isSameAs(original);
+        assertThat(original.without(1, JAN).without(3, MAR).totals(JAN, MAR, id -> "cat" + id))
+                .extracting(TypeCategoryTotal::getTotal).containsExactly(2000L);
+    }
+
+    private static long total(UserColumns columns, LocalDate start, LocalDate end) {
+        return columns.totals(start, end, id -> "cat" + id).stream().mapToLong(TypeCategoryTotal::getTotal).sum();
+    }
+}
@@ -0,0 +1,284 @@
+package com.diogo.finance.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Corre as migrações num schema descartável de um Postgres real e verifica, via
+ * EXPLAIN, que as listagens e os resumos usam os índices. As queries são as dos
+ * repositórios: cada teste chama o método, guarda o SQL gerado pelo Hibernate e os
+ * parâmetros e repete-os com explain. Só corre com EXPLAIN_DB_URL definido
+ * (ex.: jdbc:postgresql://localhost:5432/finance); EXPLAIN_DB_USERNAME e
+ * EXPLAIN_DB_PASSWORD são opcionais.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${EXPLAIN_DB_URL}",
+        "spring.datasource.username=${EXPLAIN_DB_USERNAME:postgres}",
+        "spring.datasource.password=${EXPLAIN_DB_PASSWORD:}",
+        "spring.datasource.hikari.schema=" + TransactionIndexExplainTest.SCHEMA,
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionIndexExplainTest {
+
+    static final String SCHEMA = "explain_test";
+    private static final int USERS = 200;
+    private static final int ROWS_PER_USER = 500;
+    private static final LocalDate FROM = LocalDate.of(2020, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    private static final List<RecordedStatement> executed = new ArrayList<>();
+    private static Connection connection;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RollupRepository rollupRepository;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        String url = System.getenv("EXPLAIN_DB_URL");
+        String username = System.getenv().getOrDefault("EXPLAIN_DB_USERNAME", "postgres");
+        String password = System.getenv().getOrDefault("EXPLAIN_DB_PASSWORD", "");
+
+        connection = DriverManager.getConnection(url, username, password);
+        execute("drop schema if exists " + SCHEMA + " cascade");
+
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        execute("set search_path to " + SCHEMA);
+        execute("insert into users (id, email) select g, 'user' || g || '@explain.local' from generate_series(1, "
+                + USERS + ") g");
+        execute("insert into category (id, name) select g, 'Category ' || g from generate_series(1, 10) g");
+        execute("insert into transaction (id, user_id, category_id, amount_minor, date, description, type)"
+                + " select g, mod(g, " + USERS + ") + 1, mod(g, 10) + 1, mod(g, 50000),"
+                + " date '2020-01-01' + mod(g / " + USERS + ", 1500), 'tx ' || g, cast(mod(g, 4) = 0 as int)"
+                + " from generate_series(1, " + USERS * ROWS_PER_USER + ") g");
+        execute("""
+                insert into daily_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+                select user_id, date, type, category_id, sum(amount_minor), count(*)
+                from transaction group by user_id, date, type, category_id
+                """);
+        execute("""
+                insert into monthly_rollup (user_id, bucket, type, category_id, total_minor, tx_count)
+                select user_id, cast(date_trunc('month', bucket) as date), type, category_id, sum(total_minor), sum(tx_count)
+                from daily_rollup group by user_id, cast(date_trunc('month', bucket) as date), type, category_id
+                """);
+        // vacuum preenche o visibility map, sem o qual o planeador não escolhe index-only scans
+        execute("vacuum analyze");
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (connection != null) {
+            execute("drop schema if exists " + SCHEMA + " cascade");
+            connection.close();
+        }
+    }
+
+    @BeforeEach
+    void clearRecorded() {
+        executed.clear();
+    }
+
+    @Test
+    void firstPageUsesUserDateIndex() throws SQLException {
+        transactionRepository.findFirstPage(42L, FROM, TO, PageRequest.of(0, 51));
+        String plan = explainLast();
+        assertTrue(plan.contains("idx_transaction_user_date_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void nextPageUsesUserDateIndex() throws SQLException {
+        transactionRepository.findPageAfter(42L, FROM, TO, LocalDate.of(2022, 6, 1), 100_000L, PageRequest.of(0, 51));
+        String plan = explainLast();
+        assertTrue(plan.contains("idx_transaction_user_date_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void dateRangeListingUsesIndex() throws SQLException {
+        transactionRepository.findResponsesByUserIdAndDateBetween(42L, LocalDate.of(2021, 1, 1),
+                LocalDate.of(2021, 6, 30));
+        String plan = explainLast();
+        assertFalse(plan.contains("Seq Scan on transaction"), plan);
+        assertTrue(plan.contains("idx_transaction_user_date"), plan);
+    }
+
+    @Test
+    void rawSummaryUsesCoveringIndex() throws SQLException {
+        transactionRepository.sumByTypeAndCategory(42L, LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31));
+        assertIndexOnlyTotals(explainLast());
+    }
+
+    @Test
+    void summaryPartsUseCoveringIndex() throws SQLException {
+        LocalDate start = LocalDate.of(2021, 1, 1);
+        LocalDate end = LocalDate.of(2021, 12, 31);
+        transactionRepository.sumBalance(42L, start, end);
+        assertIndexOnlyTotals(explainLast());
+        transactionRepository.sumByType(42L, start, end);
+        assertIndexOnlyTotals(explainLast());
+        transactionRepository.sumByCategory(42L, start, end);
+        assertIndexOnlyTotals(explainLast());
+    }
+
+    // com poucas linhas por utilizador o índice (user_id, date) chega; o de trigramas conta para quem tem muitas
+    @Test
+    void descriptionSearchUsesTrigramIndex() throws SQLException {
+        long heavyUser = USERS + 1;
+        execute("insert into users (id, email) values (" + heavyUser + ", 'heavy@explain.local')");
+        execute("insert into transaction (id, user_id, category_id, amount_minor, date, description, type)"
+                + " select " + USERS * ROWS_PER_USER + " + g, " + heavyUser + ", mod(g, 10) + 1, mod(g, 50000),"
+                + " date '2020-01-01' + mod(g, 1500), 'Compra ' || md5(g::text), 1"
+                + " from generate_series(1, 100000) g");
+        // vacuum e não só analyze: as páginas novas fora do visibility map tirariam os index-only scans aos outros testes
+        execute("vacuum analyze transaction");
+
+        transactionRepository.search(heavyUser, FROM, TO, "%beef%", null, null, null, null, null, null,
+                PageRequest.of(0, 51));
+        String plan = explainLast();
+        assertFalse(plan.contains("Seq Scan on transaction"), plan);
+        assertTrue(plan.contains("idx_transaction_user_description_trgm"), plan);
+    }
+
+    @Test
+    void rollupSummaryUsesRollupKeys() throws SQLException {
+        rollupRepository.summarize(42L, LocalDate.of(2021, 2, 1), LocalDate.of(2021, 11, 1),
+                LocalDate.of(2021, 1, 15), LocalDate.of(2021, 1, 31),
+                LocalDate.of(2021, 12, 1), LocalDate.of(2021, 12, 10));
+        String plan = explainLast();
+        assertFalse(plan.contains("Seq Scan on daily_rollup"), plan);
+        assertFalse(plan.contains("Seq Scan on monthly_rollup"), plan);
+    }
+
+    private static void assertIndexOnlyTotals(String plan) {
+        assertTrue(plan.contains("Index Only Scan using idx_transaction_user_date_totals"), plan);
+    }
+
+    // repete com explain a última query executada pelo repositório, com os mesmos parâmetros
+    private static String explainLast() throws SQLException {
+        assertFalse(executed.isEmpty(), "no statement was executed");
+        RecordedStatement last = executed.get(executed.size() - 1);
+        try (PreparedStatement statement = connection.prepareStatement("explain " + last.sql())) {
+            for (Binding binding : last.bindings()) {
+                invoke(binding.method(), statement, binding.args());
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Binding(Method method, Object[] args) {
+    }
+
+    private record RecordedStatement(String sql, List<Binding> bindings) {
+    }
+
+    /**
+     * Envolve a DataSource do contexto para guardar cada PreparedStatement executado
+     * (SQL e chamadas set*).
+     */
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (p, method, args) -> {
+                        Object result = invoke(method, target, args);
+                        if (result instanceof Connection c && method.getName().equals("getConnection")) {
+                            return proxy(Connection.class, c);
+                        }
+                        if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement")) {
+                            return recording(ps, (String) args[0]);
+                        }
+                        return result;
+                    }));
+        }
+
+        private static PreparedStatement recording(PreparedStatement target, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer) {
+                            bindings.add(new Binding(method, args.clone()));
+                        } else if (method.getName().startsWith("execute") && (args == null || args.length == 0)) {
+                            executed.add(new RecordedStatement(sql, List.copyOf(bindings)));
+                        }
+                        return invoke(method, target, args);
+                    });
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.model.User;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Os upserts dos rollups são SQL do Postgres: corre as migrações num schema descartável da
+ * mesma base que o TransactionIndexExplainTest (só com EXPLAIN_DB_URL definido).
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${EXPLAIN_DB_URL}",
+        "spring.datasource.username=${EXPLAIN_DB_USERNAME:postgres}",
+        "spring.datasource.password=${EXPLAIN_DB_PASSWORD:}",
+        "spring.datasource.hikari.schema=" + RollupServiceTest.SCHEMA,
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RollupService.class, DataVersionService.class, CategorySnapshot.class})
+class RollupServiceTest {
+
+    static final String SCHEMA = "rollup_test";
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        execute("drop schema if exists " + SCHEMA + " cascade");
+        Flyway.configure()
+                .dataSource(System.getenv("EXPLAIN_DB_URL"), username(), password())
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        execute("drop schema if exists " + SCHEMA + " cascade");
+    }
+
+    // type e category_id null não colidiam no on conflict: cada escrita acrescentava uma linha ao bucket
+    @Test
+    void removingUncategorizedTransactionUpdatesTheSameRollupRow() {
+        User user = new User(null, "rollup@test.com", "secret", "Test", 0);
+        entityManager.persist(user);
+        Transaction kept = uncategorized(user, 12.5);
+        Transaction removed = uncategorized(user, 40.0);
+        rollupService.add(kept);
+        rollupService.add(removed);
+
+        rollupService.remove(removed);
+        entityManager.remove(removed);
+        entityManager.flush();
+
+        assertThat(jdbcTemplate.queryForList(
+                "select total_minor, tx_count from daily_rollup where user_id = ?", user.getId()))
+                .containsExactly(Map.of("total_minor", 1250L, "tx_count", 1L));
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from monthly_rollup where user_id = ?", Long.class, user.getId()))
+                .isEqualTo(1);
+        assertThat(rollupService.verify(user.getId())).isEmpty();
+    }
+
+    private Transaction uncategorized(User user, double amount) {
+        Transaction t = new Transaction();
+        t.setUser(user);
+        t.setAmount(amount);
+        t.setDate(DAY);
+        t.setDescription("Sem categoria");
+        t.setType(TransactionType.EXPENSE);
+        entityManager.persist(t);
+        entityManager.flush();
+        return t;
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("EXPLAIN_DB_URL"), username(), password());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String username() {
+        return System.getenv().getOrDefault("EXPLAIN_DB_USERNAME", "postgres");
+    }
+
+    private static String password() {
+        return System.getenv().getOrDefault("EXPLAIN_DB_PASSWORD", "");
+    }
+}
@@ -0,0 +1,107 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.analytics.ColumnarStore;
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.cache.SummaryCache;
+import com.diogo.finance.metrics.AggregationMetrics;
+import com.diogo.finance.model.Category;
+import com.diogo.finance.model.Transaction;
+import com.diogo.finance.model.TransactionType;
+import com.diogo.finance.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Import({TransactionService.class, RollupService.class, BudgetService.class, DataVersionService.class,
+        SummaryFanOutService.class, SummaryCache.class, CategorySnapshot.class, ColumnarStore.class,
+        AggregationMetrics.class, SimpleMeterRegistry.class})
+class TransactionListingStatementCountTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingStatementCountDoesNotDependOnRowCount() {
+        User small = seed("small@test.com", 3);
+        User large = seed("large@test.com", 60);
+
+        assertThat(countStatements(() -> transactionService.getAllTransactions(small.getId()).size()))
+                .isEqualTo(countStatements(() -> transactionService.getAllTransactions(large.getId()).size()))
+                .isEqualTo(1);
+
+        assertThat(countStatements(() -> transactionService
+                .getTransactionsByEmailAndDateRange(small.getEmail(), START, END).size()))
+                .isEqualTo(countStatements(() -> transactionService
+                        .getTransactionsByEmailAndDateRange(large.getEmail(), START, END).size()))
+                .isEqualTo(2);
+
+        assertThat(countStatements(() -> transactionService
+                .getTransactionPage(large.getId(), START, END, null, 50).getItems().size()))
+                .isEqualTo(1);
+    }
+
+    private long countStatements(Supplier<Integer> listing) {
+        entityManager.clear();
+        statistics.clear();
+        assertThat(listing.get()).isPositive();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User seed(String email, int transactions) {
+        User user = new User(null, email, "secret", "Test", 0);
+        entityManager.persist(user);
+
+        Category[] categories = new Category[3];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category(null, "Category " + email + i);
+            entityManager.persist(categories[i]);
+        }
+
+        for (int i = 0; i < transactions; i++) {
+            Transaction t = new Transaction();
+            t.setUser(user);
+            t.setCategory(categories[i % categories.length]);
+            t.setAmount(10.0 + i);
+            t.setDate(START.plusDays(i));
+            t.setDescription("Row " + i);
+            t.setType(i % 2 == 0 ? TransactionType.EXPENSE : TransactionType.INCOME);
+            entityManager.persist(t);
+        }
+        entityManager.flush();
+        return user;
+    }
+}
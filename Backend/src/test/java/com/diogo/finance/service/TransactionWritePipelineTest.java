@@ -0,0 +1,119 @@
+package com.diogo.finance.service;
+
+import com.diogo.finance.analytics.ColumnarStore;
+import com.diogo.finance.cache.CategorySnapshot;
+import com.diogo.finance.cache.SummaryCache;
+import com.diogo.finance.dto.TransactionRequest;
+import com.diogo.finance.dto.TransactionResponse;
+import com.diogo.finance.metrics.AggregationMetrics;
+import com.diogo.finance.model.Category;
+import com.diogo.finance.model.User;
+import com.diogo.finance.repository.CategoryRepository;
+import com.diogo.finance.repository.TransactionRepository;
+import com.diogo.finance.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// sem a transação do teste: a fila grava noutra thread e tem de ver os dados já commitados.
+// Rollups e orçamentos usam upserts do Postgres (on conflict), que o H2 não tem
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "transaction.write-behind.max-batch=3",
+        "transaction.write-behind.max-delay=5s"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionWritePipeline.class, TransactionService.class, DataVersionService.class,
+        SummaryFanOutService.class, SummaryCache.class, CategorySnapshot.class, ColumnarStore.class,
+        AggregationMetrics.class, SimpleMeterRegistry.class})
+class TransactionWritePipelineTest {
+
+    @Autowired
+    private TransactionWritePipeline transactionWritePipeline;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private RollupService rollupService;
+
+    @MockitoBean
+    private BudgetService budgetService;
+
+    @Test
+    void invalidWriteFailsAloneWhenGroupCommitFallsBack() throws Exception {
+        User user = userRepository.save(new User(null, "pipeline@test.com", "secret", "Test", 0));
+        Category category = categoryRepository.save(new Category(null, "Pipeline"));
+        categorySnapshot.refresh();
+
+        // max-batch=3 e max-delay=5s: as três escritas vão no mesmo grupo
+        CompletableFuture<TransactionResponse> first = submit(request(user, category, 10.0, LocalDate.of(2025, 1, 1)));
+        CompletableFuture<TransactionResponse> invalid = submit(request(user, category, 20.0, null));
+        CompletableFuture<TransactionResponse> last = submit(request(user, category, 30.0, LocalDate.of(2025, 1, 3)));
+
+        assertThat(first.get(30, TimeUnit.SECONDS).getAmount()).isEqualTo(10.0);
+        assertThat(last.get(30, TimeUnit.SECONDS).getAmount()).isEqualTo(30.0);
+        assertThatThrownBy(() -> invalid.get(30, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        assertThat(transactionRepository.findResponsesByUserId(user.getId()))
+                .extracting(TransactionResponse::getAmount)
+                .containsExactlyInAnyOrder(10.0, 30.0);
+        // o grupo de três falhou; as duas válidas foram gravadas uma a uma
+        DistributionSummary groups = meterRegistry.get("finance.write.group.size").summary();
+        assertThat(groups.count()).isEqualTo(2);
+        assertThat(groups.max()).isEqualTo(1);
+    }
+
+    private CompletableFuture<TransactionResponse> submit(TransactionRequest request) {
+        return transactionWritePipeline.submit(() -> transactionService.addTransaction(request));
+    }
+
+    private static TransactionRequest request(User user, Category category, double amount, LocalDate date) {
+        TransactionRequest request = new TransactionRequest();
+        request.setEmail(user.getEmail());
+        request.setCategoryId(category.getId());
+        request.setAmount(amount);
+        request.setDate(date);
+        request.setDescription("Pipeline " + amount);
+        request.setType("EXPENSE");
+        return request;
+    }
+}
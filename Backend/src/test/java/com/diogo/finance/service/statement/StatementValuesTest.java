@@ -0,0 +1,58 @@
+package com.diogo.finance.service.statement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementValuesTest {
+
+    @Test
+    void parsesDotDecimalAmounts() {
+        assertThat(StatementValues.parseAmount("1234.56")).isEqualTo(1234.56);
+        assertThat(StatementValues.parseAmount("1,234.56")).isEqualTo(1234.56);
+        assertThat(StatementValues.parseAmount("-1,234,567.8")).isEqualTo(-1234567.8);
+        assertThat(StatementValues.parseAmount(" 0.125 ")).isEqualTo(0.125);
+        // formato do TransactionCsvExporter
+        assertThat(StatementValues.parseAmount("10000000.00")).isEqualTo(10_000_000);
+        assertThat(StatementValues.parseAmount("12.50")).isEqualTo(12.5);
+    }
+
+    @Test
+    void parsesCommaDecimalAmounts() {
+        assertThat(StatementValues.parseAmount("1234,56")).isEqualTo(1234.56);
+        assertThat(StatementValues.parseAmount("1.234,56")).isEqualTo(1234.56);
+        assertThat(StatementValues.parseAmount("-1 234 567,8")).isEqualTo(-1234567.8);
+        assertThat(StatementValues.parseAmount("1234,567")).isEqualTo(1234.567);
+    }
+
+    @Test
+    void repeatedSeparatorIsThousands() {
+        assertThat(StatementValues.parseAmount("1.234.567")).isEqualTo(1234567);
+        assertThat(StatementValues.parseAmount("1,234,567")).isEqualTo(1234567);
+        assertThat(StatementValues.parseAmount("42")).isEqualTo(42);
+    }
+
+    @Test
+    void rejectsAmbiguousAmounts() {
+        assertThatThrownBy(() -> StatementValues.parseAmount("1,234"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Ambiguous amount: 1,234");
+        assertThatThrownBy(() -> StatementValues.parseAmount("-12.500"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Ambiguous amount");
+    }
+
+    @Test
+    void rejectsMalformedAmounts() {
+        assertThatThrownBy(() -> StatementValues.parseAmount("1.234.56"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid amount: 1.234.56");
+        assertThatThrownBy(() -> StatementValues.parseAmount("12,34,567.00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatementValues.parseAmount("1.234,567.8"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatementValues.parseAmount("abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
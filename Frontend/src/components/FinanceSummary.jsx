@@ -41,10 +41,10 @@ const FinanceSummary = ({ email }) => {
 
   if (!summary) return <p>🔄 A carregar resumo financeiro...</p>;
 
-  const categoryData = Object.entries(summary.totalsByCategory).map(
+  const categoryData = Object.entries(summary.totalsByCategory || {}).map(
     ([name, value]) => ({ name, value })
   );
-  const typeData = Object.entries(summary.totalsByType).map(
+  const typeData = Object.entries(summary.totalsByType || {}).map(
     ([name, value]) => ({ name, value })
   );
 
@@ -58,7 +58,7 @@ const FinanceSummary = ({ email }) => {
             summary.balance >= 0 ? "text-green-600" : "text-red-600"
           }`}
         >
-          {summary.balance.toFixed(2)} €
+          {summary.balance != null ? `${summary.balance.toFixed(2)} €` : "—"}
         </p>
       </div>
 
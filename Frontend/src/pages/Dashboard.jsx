@@ -1,5 +1,6 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import api from "../services/api";
+import { subscribeToTransactions } from "../services/liveUpdates";
 import {
   BarChart,
   Bar,
@@ -28,6 +29,10 @@ export default function Dashboard() {
   const [summary, setSummary] = useState(null);
   const [successMessage, setSuccessMessage] = useState("");
   const [errorMessage, setErrorMessage] = useState("");
+  const [search, setSearch] = useState("");
+  const [categories, setCategories] = useState([]);
+  // true enquanto o canal SSE está ligado; nesse caso as escritas chegam por lá
+  const liveRef = useRef(false);
 
   const fetchSummary = async () => {
     try {
@@ -41,12 +46,13 @@ export default function Dashboard() {
         },
       });
 
-      const { balance, totalsByType, totalsByCategory } = response.data;
+      const { balance, totalsByType, totalsByCategory, degraded } = response.data;
 
       setSummary({
         balance,
         totalsByType: totalsByType || {},
         totalsByCategory: totalsByCategory || {},
+        degraded,
       });
     } catch (error) {
       console.error("❌ Erro ao buscar resumo:", error);
@@ -57,6 +63,21 @@ export default function Dashboard() {
     try {
       const email = localStorage.getItem("userEmail");
 
+      // com texto de pesquisa, o servidor filtra pela descrição (só a primeira página)
+      if (search.trim()) {
+        const response = await api.get("/transactions/search/by-email", {
+          params: {
+            email,
+            q: search.trim(),
+            start: getStartOfMonth(),
+            end: getEndOfMonth(),
+            size: 500,
+          },
+        });
+        setTransactions(response.data.items);
+        return;
+      }
+
       const response = await api.get("/transactions/by-email", {
         params: {
           email,
@@ -110,8 +131,10 @@ export default function Dashboard() {
       setTimeout(() => setSuccessMessage(""), 3000);
       resetForm();
 
-      fetchTransactions();
-      fetchSummary();
+      if (!liveRef.current) {
+        fetchTransactions();
+        fetchSummary();
+      }
 
       setShowForm(false);
     } catch (error) {
@@ -143,11 +166,68 @@ export default function Dashboard() {
       .format("YYYY-MM-DD");
   };
 
+  // aplica no sítio a alteração recebida pelo canal SSE (linha + resumo atualizado)
+  const applyLiveUpdate = (message) => {
+    if (message.summary) {
+      setSummary({
+        balance: message.summary.balance,
+        totalsByType: message.summary.totalsByType || {},
+        totalsByCategory: message.summary.totalsByCategory || {},
+        degraded: message.summary.degraded,
+      });
+    }
+
+    if (message.kind === "BULK") {
+      fetchTransactions();
+      return;
+    }
+
+    const removedId = message.previous?.id ?? message.transaction?.id;
+    const row = message.transaction;
+    const inRange =
+      row && row.date >= getStartOfMonth() && row.date <= getEndOfMonth();
+
+    setTransactions((current) => {
+      const others = current.filter((t) => t.id !== removedId);
+      return inRange ? [...others, row] : others;
+    });
+  };
+
   useEffect(() => {
     fetchTransactions();
     fetchSummary();
+
+    const unsubscribe = subscribeToTransactions({
+      start: getStartOfMonth(),
+      end: getEndOfMonth(),
+      onMessage: applyLiveUpdate,
+      onStatus: (connected) => {
+        liveRef.current = connected;
+      },
+    });
+    return () => {
+      liveRef.current = false;
+      unsubscribe();
+    };
   }, [selectedMonth, selectedYear]);
 
+  // as categorias mudam raramente: carregadas uma vez ao abrir a página
+  useEffect(() => {
+    api
+      .get("/categories")
+      .then((response) => setCategories(response.data))
+      .catch((error) => console.error("❌ Erro ao buscar categorias:", error));
+  }, []);
+
+  // a lista inicial já vem do efeito do mês; aqui só reage ao texto de pesquisa
+  const searchedRef = useRef(false);
+  useEffect(() => {
+    if (!searchedRef.current && !search) return;
+    searchedRef.current = true;
+    const timer = setTimeout(fetchTransactions, 300);
+    return () => clearTimeout(timer);
+  }, [search]);
+
   const handleDeleteTransaction = async (id) => {
     const token = localStorage.getItem("token");
 
@@ -160,8 +240,10 @@ export default function Dashboard() {
       });
 
       console.log("✅ Transação apagada com sucesso");
-      fetchTransactions(); // recarrega a lista atualizada
-      fetchSummary();
+      if (!liveRef.current) {
+        fetchTransactions(); // recarrega a lista atualizada
+        fetchSummary();
+      }
     } catch (err) {
       console.error("❌ Erro ao apagar transação:", err);
     }
@@ -216,6 +298,12 @@ export default function Dashboard() {
         </select>
       </div>
 
+      {summary?.degraded && (
+        <p className="mb-4 text-sm text-yellow-700">
+          ⚠️ Resumo parcial: alguns totais demoraram demasiado e não foram incluídos.
+        </p>
+      )}
+
       {/* Saldo, Receita, Despesa */}
       <div className="grid grid-cols-1 sm:grid-cols-3 gap-6 mb-8">
         {/* Saldo */}
@@ -326,10 +414,11 @@ export default function Dashboard() {
             onChange={(e) => setCategoryId(Number(e.target.value))}
             className="border border-gray-300 rounded-md p-3 focus:outline-none focus:ring-2 focus:ring-green-400"
           >
-            <option value={1}>Alimentação</option>
-            <option value={51}>Transporte</option>
-            <option value={101}>Saúde</option>
-            <option value={151}>Lazer</option>
+            {categories.map((c) => (
+              <option key={c.id} value={c.id}>
+                {c.name}
+              </option>
+            ))}
           </select>
 
           <button
@@ -342,6 +431,15 @@ export default function Dashboard() {
         </form>
       )}
 
+      {/* Pesquisa */}
+      <input
+        type="search"
+        placeholder="🔍 Pesquisar descrição..."
+        value={search}
+        onChange={(e) => setSearch(e.target.value)}
+        className="w-full mb-4 p-3 border border-gray-300 rounded-md focus:outline-none focus:ring-2 focus:ring-green-400"
+      />
+
       {/* Tabela de transações */}
       <div className="overflow-x-auto bg-white rounded-lg shadow border border-gray-100">
         <table className="min-w-full table-auto">
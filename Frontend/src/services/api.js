@@ -16,7 +16,37 @@ api.interceptors.request.use((config) => {
     config.headers.Authorization = `Bearer ${token}`;
   }
 
+  // Escritas de transações levam uma Idempotency-Key: uma repetição do mesmo pedido
+  // devolve a resposta original em vez de criar outra transação
+  const method = (config.method || "get").toLowerCase();
+  if (
+    (method === "post" || method === "put") &&
+    config.url.startsWith("/transactions") &&
+    !config.headers["Idempotency-Key"]
+  ) {
+    config.headers["Idempotency-Key"] = crypto.randomUUID();
+  }
+
   return config;
 });
 
+const MAX_WRITE_RETRIES = 2;
+
+// Sem resposta (timeout, rede) ou gateway indisponível: repete com a mesma chave
+api.interceptors.response.use(undefined, async (error) => {
+  const config = error.config;
+  const status = error.response?.status;
+  const retryable = !error.response || status === 502 || status === 503 || status === 504;
+
+  if (!config || !config.headers?.["Idempotency-Key"] || !retryable) {
+    return Promise.reject(error);
+  }
+  config.retryCount = (config.retryCount || 0) + 1;
+  if (config.retryCount > MAX_WRITE_RETRIES) {
+    return Promise.reject(error);
+  }
+  await new Promise((resolve) => setTimeout(resolve, 500 * config.retryCount));
+  return api(config);
+});
+
 export default api;
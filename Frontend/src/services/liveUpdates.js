@@ -0,0 +1,74 @@
+import api from "./api";
+
+// Subscreve o canal SSE /transactions/events do utilizador autenticado.
+// Usa fetch em vez de EventSource para poder enviar o header Authorization.
+// Devolve uma função que fecha a ligação.
+export function subscribeToTransactions({ start, end, onMessage, onStatus }) {
+  const controller = new AbortController();
+  let retryDelay = 1000;
+
+  const connect = async () => {
+    const token = localStorage.getItem("authToken");
+    const url = new URL("/transactions/events", api.defaults.baseURL);
+    if (start && end) {
+      url.searchParams.set("start", start);
+      url.searchParams.set("end", end);
+    }
+
+    try {
+      const response = await fetch(url, {
+        headers: {
+          Accept: "text/event-stream",
+          ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        signal: controller.signal,
+      });
+      if (!response.ok || !response.body) {
+        throw new Error(`SSE ${response.status}`);
+      }
+
+      onStatus?.(true);
+      retryDelay = 1000;
+
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = "";
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += value;
+
+        // cada evento termina numa linha em branco
+        let boundary;
+        while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+          const raw = buffer.slice(0, boundary);
+          buffer = buffer.slice(boundary + 2);
+          handleEvent(raw, onMessage);
+        }
+      }
+    } catch (error) {
+      if (controller.signal.aborted) return;
+      console.error("❌ Erro no canal de atualizações:", error);
+    }
+
+    onStatus?.(false);
+    if (!controller.signal.aborted) {
+      setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, 30000);
+    }
+  };
+
+  connect();
+  return () => controller.abort();
+}
+
+function handleEvent(raw, onMessage) {
+  let name = "message";
+  const data = [];
+  for (const line of raw.split("\n")) {
+    if (line.startsWith("event:")) name = line.slice(6).trim();
+    else if (line.startsWith("data:")) data.push(line.slice(5));
+  }
+  if (name === "transaction" && data.length > 0) {
+    onMessage(JSON.parse(data.join("\n")));
+  }
+}